@@ -0,0 +1,57 @@
+package study.datajpa.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Member;
+
+import javax.persistence.EntityManager;
+
+/**
+ * 감사 정보(시각, 사용자)를 트랜잭션당 한번 구할때와 엔티티마다 구할때의 대량 insert 비용 비교
+ * perTransaction=false 는 엔티티마다 auditorAware(UUID.randomUUID), LocalDateTime.now()를 호출한다.
+ */
+@State(Scope.Benchmark)
+public class AuditingBenchmark {
+
+    private static final int ROWS = 1000;
+
+    @Param({"true", "false"})
+    boolean perTransaction;
+
+    ConfigurableApplicationContext context;
+    TransactionTemplate transactionTemplate;
+    EntityManager em;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkSupport.start("study.audit.per-transaction=" + perTransaction);
+        transactionTemplate = BenchmarkSupport.transactionTemplate(context);
+        em = context.getBean(EntityManager.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public Integer batchInsert() {
+        return transactionTemplate.execute(status -> {
+            for (int i = 0; i < ROWS; i++) {
+                em.persist(new Member("audit" + i, i % 100));
+            }
+            em.flush();
+            em.clear();
+            return ROWS;
+        });
+    }
+}
@@ -0,0 +1,85 @@
+package study.datajpa.benchmark;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.DataJpaApplication;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.TeamRepository;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * 벤치마크용 애플리케이션 구동, 데이터 생성
+ * 외부 h2 서버 대신 벤치마크 마다 새로운 메모리 h2를 사용한다.
+ */
+public final class BenchmarkSupport {
+
+    private BenchmarkSupport() {
+    }
+
+    /**
+     * 2차 캐시는 기본으로 끈다. 켜두면 워밍업 이후 팀, team.members를 캐시에서 읽어 조회 방식의 차이가 드러나지 않는다
+     * @param properties 추가 설정. key=value. 같은 key의 기본값을 덮어쓴다
+     */
+    public static ConfigurableApplicationContext start(String... properties) {
+        Map<String, String> args = new LinkedHashMap<>();
+        args.put("spring.datasource.url", "jdbc:h2:mem:bench-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        args.put("logging.level.org.hibernate.SQL", "warn");
+        args.put("decorator.datasource.enabled", "false"); // p6spy 로그 비용은 측정에서 제외
+        args.put("spring.jpa.properties.hibernate.cache.use_second_level_cache", "false");
+        args.put("spring.jpa.properties.hibernate.cache.use_query_cache", "false");
+        for (String property : properties) {
+            int separator = property.indexOf('=');
+            args.put(property.substring(0, separator), property.substring(separator + 1));
+        }
+        return new SpringApplicationBuilder(DataJpaApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(args.entrySet().stream()
+                        .map(entry -> "--" + entry.getKey() + "=" + entry.getValue())
+                        .toArray(String[]::new));
+    }
+
+    public static TransactionTemplate transactionTemplate(ConfigurableApplicationContext context) {
+        return new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+    }
+
+    /**
+     * teamCount개의 팀에 memberCount명을 고르게 나눠 등록한다.
+     * username은 member0 ~ member9 를 반복해서 username 조회는 전체의 1/10 을 읽는다.
+     */
+    public static void seed(ConfigurableApplicationContext context, int memberCount, int teamCount) {
+        TeamRepository teamRepository = context.getBean(TeamRepository.class);
+        MemberRepository memberRepository = context.getBean(MemberRepository.class);
+
+        transactionTemplate(context).execute(status -> {
+            List<Team> teams = new ArrayList<>();
+            for (int i = 0; i < teamCount; i++) {
+                teams.add(teamRepository.save(new Team("team" + i)));
+            }
+            for (int i = 0; i < memberCount; i++) {
+                memberRepository.save(new Member("member" + (i % 10), i % 100, teams.get(i % teamCount)));
+            }
+            return null;
+        });
+    }
+
+    /**
+     * 조회한 회원의 팀 이름까지 접근해서 지연로딩이 있다면 실제로 실행되게 한다
+     */
+    public static int touchTeams(List<Member> members) {
+        int sum = 0;
+        for (Member member : members) {
+            sum += member.getTeam() == null ? 0 : member.getTeam().getName().length();
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,70 @@
+package study.datajpa.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.context.ConfigurableApplicationContext;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.service.MemberAgeService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 같은 회원을 여러 스레드가 동시에 수정할때 낙관적 락(재시도) vs 비관적 락(select for update) 비교
+ * hotMembers가 작을수록 충돌이 잦다.
+ */
+@State(Scope.Benchmark)
+@Threads(4)
+public class LockContentionBenchmark {
+
+    @Param({"1", "16", "256"})
+    int hotMembers;
+
+    ConfigurableApplicationContext context;
+    MemberAgeService memberAgeService;
+    List<Long> ids;
+    List<String> usernames;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkSupport.start(
+                "study.optimistic-retry.max-attempts=100",
+                "study.optimistic-retry.initial-backoff-millis=1",
+                "study.optimistic-retry.max-backoff-millis=20");
+        memberAgeService = context.getBean(MemberAgeService.class);
+        MemberRepository memberRepository = context.getBean(MemberRepository.class);
+
+        ids = new ArrayList<>();
+        usernames = new ArrayList<>();
+        for (int i = 0; i < hotMembers; i++) {
+            Member member = memberRepository.save(new Member("hot" + i, 0));
+            ids.add(member.getId());
+            usernames.add(member.getUsername());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void optimistic() {
+        int index = ThreadLocalRandom.current().nextInt(hotMembers);
+        memberAgeService.addAgeOptimistic(ids.get(index), 1);
+    }
+
+    @Benchmark
+    public void pessimistic() {
+        int index = ThreadLocalRandom.current().nextInt(hotMembers);
+        memberAgeService.addAgePessimistic(usernames.get(index), 1);
+    }
+}
@@ -0,0 +1,108 @@
+package study.datajpa.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Team;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.TeamRepository;
+
+import static study.datajpa.benchmark.BenchmarkSupport.touchTeams;
+
+/**
+ * 회원과 팀을 함께 조회하는 방법별 비교
+ * ./gradlew jmh -Pjmh.includes=MemberFetchBenchmark
+ *
+ * 각 벤치마크는 하나의 트랜잭션에서 조회후 팀 이름까지 접근한다.
+ * ByUsername 조회는 같은 username 회원만 읽기 때문에 전체의 1/10 건이다.
+ * default_batch_fetch_size(application.yml) 는 secondLevelCache=false 결과로 판단한다
+ * ./gradlew jmh -Pjmh.includes=MemberFetchBenchmark.lazy
+ */
+@State(Scope.Benchmark)
+public class MemberFetchBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    int memberCount;
+
+    @Param({"10"})
+    int teamCount;
+
+    @Param({"1", "100"})
+    int batchFetchSize;
+
+    // 기본은 끈 상태로 비교한다. 켜면 팀, team.members가 2차 캐시에서 읽혀 조회 방식과 batchFetchSize 차이가 가려진다
+    @Param({"false"})
+    boolean secondLevelCache;
+
+    ConfigurableApplicationContext context;
+    MemberRepository memberRepository;
+    TeamRepository teamRepository;
+    TransactionTemplate transactionTemplate;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkSupport.start(
+                "spring.jpa.properties.hibernate.default_batch_fetch_size=" + batchFetchSize,
+                "spring.jpa.properties.hibernate.cache.use_second_level_cache=" + secondLevelCache,
+                "spring.jpa.properties.hibernate.cache.use_query_cache=" + secondLevelCache);
+        BenchmarkSupport.seed(context, memberCount, teamCount);
+        memberRepository = context.getBean(MemberRepository.class);
+        teamRepository = context.getBean(TeamRepository.class);
+        transactionTemplate = BenchmarkSupport.transactionTemplate(context);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Integer fetchJoin() {
+        return transactionTemplate.execute(status -> touchTeams(memberRepository.findMemberFetchJoin()));
+    }
+
+    @Benchmark
+    public Integer entityGraphQuery() {
+        return transactionTemplate.execute(status -> touchTeams(memberRepository.findMemberEntityGraph()));
+    }
+
+    @Benchmark
+    public Integer entityGraphFindAll() {
+        return transactionTemplate.execute(status -> touchTeams(memberRepository.findAll()));
+    }
+
+    @Benchmark
+    public Integer entityGraphByUsername() {
+        return transactionTemplate.execute(status -> touchTeams(memberRepository.findEntityGraphByUsername("member0")));
+    }
+
+    @Benchmark
+    public Integer namedEntityGraphByUsername() {
+        return transactionTemplate.execute(status -> touchTeams(memberRepository.findEntityGraph2ByUsername("member0")));
+    }
+
+    @Benchmark
+    public Integer lazyLoading() {
+        return transactionTemplate.execute(status -> touchTeams(memberRepository.findMemberCustom()));
+    }
+
+    /**
+     * 팀 목록 조회후 팀별 회원 컬랙션 지연로딩. batchFetchSize가 1이면 팀 수 만큼 쿼리가 나간다
+     */
+    @Benchmark
+    public Integer lazyTeamMembers() {
+        return transactionTemplate.execute(status -> {
+            int sum = 0;
+            for (Team team : teamRepository.findAll()) {
+                sum += team.getMembers().size();
+            }
+            return sum;
+        });
+    }
+}
@@ -0,0 +1,32 @@
+package study.datajpa.loadtest;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+/**
+ * MemberImportService 로 등록할 csv를 만든다. 같은 설정이면 항상 같은 파일이 만들어진다.
+ * 팀은 zipf 분포로 골라 일부 팀에 회원이 몰리게 한다.
+ */
+public class DataGenerator {
+
+    public static Path generate(LoadTestConfig config) throws IOException {
+        Random random = new Random(config.seed);
+        ZipfSampler teams = new ZipfSampler(config.teams, config.skew);
+
+        Path file = Files.createTempFile("loadtest-members", ".csv");
+        file.toFile().deleteOnExit();
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write("username,age,teamName");
+            writer.newLine();
+            for (int i = 0; i < config.members; i++) {
+                writer.write("member" + i + "," + (10 + random.nextInt(60)) + ",team" + teams.next(random));
+                writer.newLine();
+            }
+        }
+        return file;
+    }
+}
@@ -0,0 +1,56 @@
+package study.datajpa.loadtest;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 부하 테스트 설정. -Dloadtest.{이름}=값 으로 바꾼다
+ * ex) ./gradlew loadTest -Dloadtest.members=100000 -Dloadtest.rate=1000 -Dloadtest.scenarios=member,member2
+ */
+public class LoadTestConfig {
+
+    final int members = intProperty("members", 10000);
+    final int teams = intProperty("teams", 100);
+    final double skew = Double.parseDouble(property("skew", "1.0")); // zipf 지수. 0이면 균등, 클수록 일부에 몰린다
+    final long seed = Long.parseLong(property("seed", "42")); // 같은 seed면 같은 데이터, 같은 요청 순서
+    final int rate = intProperty("rate", 200); // 초당 요청 수. 응답을 기다리지 않고 일정한 간격으로 보낸다 (open loop)
+    final int concurrency = intProperty("concurrency", 32); // 요청을 보내는 스레드 수
+    final int warmupSeconds = intProperty("warmupSeconds", 10);
+    final int durationSeconds = intProperty("durationSeconds", 30);
+    final List<Scenario> scenarios = scenarios(property("scenarios", "members,member,member2"));
+    final String report = property("report", "build/loadtest/report.json");
+    final String version = property("version", "unknown");
+
+    Map<String, Object> toMap() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("members", members);
+        map.put("teams", teams);
+        map.put("skew", skew);
+        map.put("seed", seed);
+        map.put("rate", rate);
+        map.put("concurrency", concurrency);
+        map.put("warmupSeconds", warmupSeconds);
+        map.put("durationSeconds", durationSeconds);
+        map.put("scenarios", scenarios);
+        return map;
+    }
+
+    private static String property(String name, String defaultValue) {
+        return System.getProperty("loadtest." + name, defaultValue);
+    }
+
+    private static int intProperty(String name, int defaultValue) {
+        return Integer.parseInt(property(name, String.valueOf(defaultValue)));
+    }
+
+    private static List<Scenario> scenarios(String value) {
+        List<Scenario> scenarios = new ArrayList<>();
+        for (String name : value.split(",")) {
+            scenarios.add(Scenario.valueOf(name.trim().toUpperCase(Locale.ROOT)));
+        }
+        return scenarios;
+    }
+}
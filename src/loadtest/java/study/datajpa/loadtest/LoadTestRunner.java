@@ -0,0 +1,78 @@
+package study.datajpa.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import study.datajpa.DataJpaApplication;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.service.MemberImportService;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.time.OffsetDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * 메모리 h2로 애플리케이션을 띄우고 데이터를 만든 뒤 회원 api에 부하를 주고 결과를 json으로 남긴다.
+ * 버전별 report.json을 비교해서 성능이 나빠졌는지 확인한다.
+ *
+ * ./gradlew loadTest -Dloadtest.rate=500 -Dloadtest.durationSeconds=60
+ */
+public class LoadTestRunner {
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = new LoadTestConfig();
+        // HttpURLConnection은 호스트별로 http.maxConnections(기본 5)개만 keep-alive로 남기고 나머지는 닫는다.
+        // 동시 요청 수보다 적으면 요청마다 새로 연결해서 연결 비용이 응답시간에 섞이므로 처음 연결하기 전에 맞춘다
+        System.setProperty("http.maxConnections", String.valueOf(config.concurrency));
+
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(DataJpaApplication.class).run(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:loadtest;DB_CLOSE_DELAY=-1",
+                "--logging.level.org.hibernate.SQL=warn",
+                "--logging.level.study.datajpa=warn",
+                "--decorator.datasource.p6spy.enable-logging=false"); // sql 로그 비용은 측정에서 제외. 지표는 남긴다
+        try {
+            Path data = DataGenerator.generate(config);
+            context.getBean(MemberImportService.class).importMembers(data);
+
+            MemberRepository memberRepository = context.getBean(MemberRepository.class);
+            Scenario.Targets targets = new Scenario.Targets(memberRepository.findMinId(), memberRepository.findMaxId(), config.skew);
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            OpenLoopDriver driver = new OpenLoopDriver("http://localhost:" + port, targets, config);
+
+            Random random = new Random(config.seed);
+            driver.run(config.warmupSeconds, random, OpenLoopDriver.newResults(config.scenarios)); // jit, 캐시 예열. 결과는 버린다
+
+            Map<Scenario, ScenarioResult> results = OpenLoopDriver.newResults(config.scenarios);
+            long elapsedNanos = driver.run(config.durationSeconds, random, results);
+
+            writeReport(config, results, elapsedNanos);
+        } finally {
+            context.close();
+        }
+    }
+
+    private static void writeReport(LoadTestConfig config, Map<Scenario, ScenarioResult> results, long elapsedNanos) throws Exception {
+        Map<String, Object> scenarios = new LinkedHashMap<>();
+        results.forEach((scenario, result) -> scenarios.put(scenario.name().toLowerCase(), result.toMap(elapsedNanos)));
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("version", config.version);
+        report.put("timestamp", OffsetDateTime.now().toString());
+        report.put("javaVersion", System.getProperty("java.version"));
+        report.put("config", config.toMap());
+        report.put("elapsedSeconds", elapsedNanos / 1_000_000_000.0);
+        report.put("scenarios", scenarios);
+
+        File file = new File(config.report);
+        file.getParentFile().mkdirs();
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(file, report);
+        System.out.println(objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(scenarios));
+        System.out.println("report: " + file.getAbsolutePath());
+    }
+}
@@ -0,0 +1,117 @@
+package study.datajpa.loadtest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 정해진 간격(1/rate 초)마다 요청을 보낸다. 앞 요청의 응답을 기다리지 않는다 (open loop).
+ * 응답시간은 실제로 보낸 시각이 아니라 보내기로 예정된 시각부터 잰다.
+ * 서버가 느려져서 요청이 밀리면 밀린 시간도 응답시간에 포함된다 (coordinated omission 방지).
+ */
+public class OpenLoopDriver {
+
+    private final String baseUrl;
+    private final Scenario.Targets targets;
+    private final LoadTestConfig config;
+
+    public OpenLoopDriver(String baseUrl, Scenario.Targets targets, LoadTestConfig config) {
+        this.baseUrl = baseUrl;
+        this.targets = targets;
+        this.config = config;
+    }
+
+    /**
+     * @return 걸린 시간(나노초). 보내지 못하고 밀린 요청이 끝날때까지 포함
+     */
+    public long run(int seconds, Random random, Map<Scenario, ScenarioResult> results) throws InterruptedException {
+        List<Scenario> scenarios = config.scenarios;
+        ExecutorService workers = Executors.newFixedThreadPool(config.concurrency);
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / config.rate;
+        long total = (long) config.rate * seconds;
+        long start = System.nanoTime();
+
+        for (long i = 0; i < total; i++) {
+            long intended = start + i * intervalNanos;
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+
+            Scenario scenario = scenarios.get(random.nextInt(scenarios.size()));
+            String path = scenario.path(random, targets);
+            workers.execute(new Request(path, intended, results.get(scenario)));
+        }
+
+        workers.shutdown();
+        if (!workers.awaitTermination(1, TimeUnit.MINUTES)) {
+            // 1분 안에 보내지 못한 요청은 응답을 받지 못한 것으로 보고 실패로 센다. 빼면 결과가 실제보다 좋게 나온다
+            List<Runnable> unsent = workers.shutdownNow();
+            for (Runnable request : unsent) {
+                ((Request) request).abandon();
+            }
+            System.err.println("loadtest: " + unsent.size() + " requests were not sent within 1 minute and are counted as errors");
+        }
+        return System.nanoTime() - start;
+    }
+
+    public static Map<Scenario, ScenarioResult> newResults(List<Scenario> scenarios) {
+        Map<Scenario, ScenarioResult> results = new EnumMap<>(Scenario.class);
+        for (Scenario scenario : scenarios) {
+            results.put(scenario, new ScenarioResult());
+        }
+        return results;
+    }
+
+    private boolean send(String path) {
+        try {
+            HttpURLConnection connection = (HttpURLConnection) new URL(baseUrl + path).openConnection();
+            connection.setConnectTimeout(5000);
+            connection.setReadTimeout(30000);
+            int status = connection.getResponseCode();
+            // 응답을 끝까지 읽어야 keep-alive 커넥션이 재사용된다. 남겨두는 커넥션 수는 http.maxConnections (LoadTestRunner)
+            try (InputStream body = status < 400 ? connection.getInputStream() : connection.getErrorStream()) {
+                if (body != null) {
+                    byte[] buffer = new byte[8192];
+                    while (body.read(buffer) != -1) {
+                        // 버린다
+                    }
+                }
+            }
+            return status == HttpURLConnection.HTTP_OK;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private class Request implements Runnable {
+        private final String path;
+        private final long intended;
+        private final ScenarioResult result;
+
+        Request(String path, long intended, ScenarioResult result) {
+            this.path = path;
+            this.intended = intended;
+            this.result = result;
+        }
+
+        @Override
+        public void run() {
+            boolean success = send(path);
+            result.record(System.nanoTime() - intended, success);
+        }
+
+        void abandon() {
+            result.record(System.nanoTime() - intended, false);
+        }
+    }
+}
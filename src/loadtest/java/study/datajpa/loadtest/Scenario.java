@@ -0,0 +1,45 @@
+package study.datajpa.loadtest;
+
+import java.util.Random;
+
+/**
+ * 부하를 주는 api. 회원 id, 페이지 번호는 zipf 분포로 골라 자주 조회되는 대상이 생기게 한다
+ */
+public enum Scenario {
+    MEMBERS {
+        @Override
+        String path(Random random, Targets targets) {
+            return "/members?size=10&page=" + (targets.pages.next(random) + 1);
+        }
+    },
+    MEMBER {
+        @Override
+        String path(Random random, Targets targets) {
+            return "/members/" + targets.memberId(random);
+        }
+    },
+    MEMBER2 {
+        @Override
+        String path(Random random, Targets targets) {
+            return "/members2/" + targets.memberId(random);
+        }
+    };
+
+    abstract String path(Random random, Targets targets);
+
+    static class Targets {
+        private final long minId;
+        private final ZipfSampler members;
+        private final ZipfSampler pages;
+
+        Targets(long minId, long maxId, double skew) {
+            this.minId = minId;
+            this.members = new ZipfSampler((int) (maxId - minId + 1), skew);
+            this.pages = new ZipfSampler((int) Math.max(1, (maxId - minId + 1) / 10), skew);
+        }
+
+        long memberId(Random random) {
+            return minId + members.next(random);
+        }
+    }
+}
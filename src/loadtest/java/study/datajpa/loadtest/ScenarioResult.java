@@ -0,0 +1,47 @@
+package study.datajpa.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * api 하나의 응답시간 분포(마이크로초)와 실패 건수
+ */
+public class ScenarioResult {
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    private final Histogram latency = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3);
+    private final AtomicLong errors = new AtomicLong();
+
+    void record(long latencyNanos, boolean success) {
+        latency.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(latencyNanos), HIGHEST_TRACKABLE_MICROS));
+        if (!success) {
+            errors.incrementAndGet();
+        }
+    }
+
+    Map<String, Object> toMap(long elapsedNanos) {
+        Map<String, Object> latencyMillis = new LinkedHashMap<>();
+        latencyMillis.put("p50", millis(latency.getValueAtPercentile(50)));
+        latencyMillis.put("p99", millis(latency.getValueAtPercentile(99)));
+        latencyMillis.put("p999", millis(latency.getValueAtPercentile(99.9)));
+        latencyMillis.put("max", millis(latency.getMaxValue()));
+        latencyMillis.put("mean", latency.getMean() / 1000);
+
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("requests", latency.getTotalCount());
+        map.put("errors", errors.get());
+        map.put("throughputPerSecond", latency.getTotalCount() * 1_000_000_000.0 / elapsedNanos);
+        map.put("latencyMillis", latencyMillis);
+        return map;
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+}
@@ -0,0 +1,31 @@
+package study.datajpa.loadtest;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * 0 ~ n-1 을 zipf 분포로 뽑는다. 0번이 가장 자주 나온다.
+ * 실제 서비스처럼 일부 회원, 일부 팀에 요청과 데이터가 몰리는 상황을 만든다.
+ */
+public class ZipfSampler {
+
+    private final double[] cumulative;
+
+    public ZipfSampler(int n, double exponent) {
+        cumulative = new double[n];
+        double sum = 0;
+        for (int i = 0; i < n; i++) {
+            sum += 1 / Math.pow(i + 1, exponent);
+            cumulative[i] = sum;
+        }
+        for (int i = 0; i < n; i++) {
+            cumulative[i] /= sum;
+        }
+    }
+
+    public int next(Random random) {
+        int index = Arrays.binarySearch(cumulative, random.nextDouble());
+        int result = index >= 0 ? index : -index - 1;
+        return Math.min(result, cumulative.length - 1);
+    }
+}
@@ -4,20 +4,22 @@ import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
 import org.springframework.data.domain.AuditorAware;
-import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 import java.util.Optional;
 import java.util.UUID;
 
 @SpringBootApplication
+@EnableScheduling // 주기적인 작업 (AdaptivePoolSizer 등)
 //@EnableJpaRepositories(basePackages = "study.datajpa.repository") // boot가 자동으로 설정해줌
-@EnableJpaAuditing // 공통화된 속성을 jpa에서 상속으로 사용하기 위함
+// 등록일, 수정일 등은 AuditListener가 세팅한다 (@EnableJpaAuditing 대신 사용)
 public class DataJpaApplication {
 
 	public static void main(String[] args) {
 		SpringApplication.run(DataJpaApplication.class, args);
 	}
 
+	// AuditSnapshotProvider가 트랜잭션마다 한번 호출한다
 	@Bean
 	public AuditorAware<String> auditorAware() {
 		return () -> Optional.of(UUID.randomUUID().toString());
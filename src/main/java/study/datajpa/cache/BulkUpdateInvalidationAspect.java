@@ -0,0 +1,52 @@
+package study.datajpa.cache;
+
+import org.aspectj.lang.annotation.AfterReturning;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.repository.support.TableVersions;
+
+import java.util.Collection;
+
+/**
+ * 벌크 수정은 엔티티 리스너가 호출되지 않으므로 여기서 무효화하고 테이블 변경 번호를 올린다
+ * - 회원: 어떤 회원이 바뀌었는지 알수 없으므로 캐시 전체
+ * - 팀 회원수: 파라미터의 팀 id
+ */
+@Aspect
+@Component
+public class BulkUpdateInvalidationAspect {
+
+    private final MemberReadCache memberReadCache;
+    private final ObjectProvider<InvalidationTransport> transport;
+    private final TableVersions tableVersions;
+
+    public BulkUpdateInvalidationAspect(MemberReadCache memberReadCache, ObjectProvider<InvalidationTransport> transport,
+                                        TableVersions tableVersions) {
+        this.memberReadCache = memberReadCache;
+        this.transport = transport;
+        this.tableVersions = tableVersions;
+    }
+
+    // MemberRepository.bulkAgePlus, bulkAgePlusBetween, bulkAgePlusAndEvict, MemberJpaRepository.bulkAgePlus
+    @AfterReturning("execution(* study.datajpa.repository.*.bulkAgePlus*(..))")
+    public void invalidateAllMembers() {
+        memberReadCache.invalidateAll();
+        tableVersions.markChanged(TableVersions.MEMBER);
+        transport.ifAvailable(t -> t.publish(InvalidationEvent.all(Member.class)));
+    }
+
+    @AfterReturning("execution(* study.datajpa.repository.TeamRepository.increaseMemberCount(..)) && args(id, ..)")
+    public void invalidateTeam(Long id) {
+        tableVersions.markChanged(TableVersions.TEAM);
+        transport.ifAvailable(t -> t.publish(InvalidationEvent.of(Team.class, id)));
+    }
+
+    @AfterReturning("execution(* study.datajpa.repository.TeamRepository.recountMembers(..)) && args(ids)")
+    public void invalidateTeams(Collection<Long> ids) {
+        tableVersions.markChanged(TableVersions.TEAM);
+        transport.ifAvailable(t -> ids.forEach(id -> t.publish(InvalidationEvent.of(Team.class, id))));
+    }
+}
@@ -0,0 +1,38 @@
+package study.datajpa.cache;
+
+import org.hibernate.Hibernate;
+import org.springframework.beans.factory.ObjectProvider;
+
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+
+/**
+ * 엔티티가 등록, 수정, 삭제되면 다른 노드에 무효화 이벤트를 보낸다 (BaseEntity, JpaBaseEntity)
+ * flush 시점에 호출되므로 outbox 저장도 같은 트랜잭션에 포함된다.
+ * 리스너는 EntityManagerFactory를 만들때 생성되므로 필요한 빈은 사용할때 꺼낸다
+ */
+public class CacheInvalidationListener {
+
+    private final ObjectProvider<InvalidationTransport> transport;
+    private final ObjectProvider<EntityManagerFactory> entityManagerFactory;
+
+    public CacheInvalidationListener(ObjectProvider<InvalidationTransport> transport,
+                                     ObjectProvider<EntityManagerFactory> entityManagerFactory) {
+        this.transport = transport;
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void publish(Object entity) {
+        InvalidationTransport invalidationTransport = transport.getIfAvailable();
+        if (invalidationTransport == null) {
+            return; // study.invalidation.transport 를 none 등으로 끈 경우
+        }
+        Object id = entityManagerFactory.getObject().getPersistenceUnitUtil().getIdentifier(entity);
+        invalidationTransport.publish(InvalidationEvent.of(Hibernate.getClass(entity), id));
+    }
+}
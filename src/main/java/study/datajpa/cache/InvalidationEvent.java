@@ -0,0 +1,34 @@
+package study.datajpa.cache;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * 다른 노드에 보내는 캐시 무효화 이벤트. 엔티티 이름(하이버네이트 엔티티명 = 클래스 전체 이름)과 id만 담는다.
+ */
+@Getter
+@EqualsAndHashCode
+@ToString
+public class InvalidationEvent {
+
+    private final String entityName;
+    private final String entityId; // null이면 엔티티 전체 (벌크 수정)
+
+    public InvalidationEvent(String entityName, String entityId) {
+        this.entityName = entityName;
+        this.entityId = entityId;
+    }
+
+    public static InvalidationEvent of(Class<?> entityClass, Object id) {
+        return new InvalidationEvent(entityClass.getName(), id == null ? null : id.toString());
+    }
+
+    public static InvalidationEvent all(Class<?> entityClass) {
+        return new InvalidationEvent(entityClass.getName(), null);
+    }
+
+    public boolean isAll() {
+        return entityId == null;
+    }
+}
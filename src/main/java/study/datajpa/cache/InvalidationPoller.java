@@ -0,0 +1,39 @@
+package study.datajpa.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * 다른 노드가 보낸 무효화 이벤트를 주기적으로 받아 이 노드의 캐시를 지운다
+ * study.invalidation.transport 를 outbox 가 아닌 값으로 바꾸면 InvalidationTransport 빈을 따로 등록해야 한다
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "study.invalidation.enabled", havingValue = "true", matchIfMissing = true)
+public class InvalidationPoller {
+
+    private final InvalidationTransport transport;
+    private final LocalCacheInvalidator localCacheInvalidator;
+
+    public InvalidationPoller(InvalidationTransport transport, LocalCacheInvalidator localCacheInvalidator) {
+        this.transport = transport;
+        this.localCacheInvalidator = localCacheInvalidator;
+    }
+
+    /**
+     * @return 적용한 이벤트 수
+     */
+    @Scheduled(fixedDelayString = "${study.invalidation.poll-interval-millis:1000}")
+    public int poll() {
+        List<InvalidationEvent> events = transport.poll();
+        localCacheInvalidator.apply(events);
+        if (!events.isEmpty()) {
+            log.debug("applied {} cache invalidation events", events.size());
+        }
+        return events.size();
+    }
+}
@@ -0,0 +1,20 @@
+package study.datajpa.cache;
+
+import java.util.List;
+
+/**
+ * 노드끼리 캐시 무효화 이벤트를 주고받는 방법. 기본은 db outbox 테이블 (OutboxInvalidationTransport)
+ * study.invalidation.transport 로 다른 구현(메시지 브로커 등)으로 바꿀수 있다.
+ */
+public interface InvalidationTransport {
+
+    /**
+     * 현재 트랜잭션 안에서 호출되면 트랜잭션과 같이 커밋, 롤백되어야 한다
+     */
+    void publish(InvalidationEvent event);
+
+    /**
+     * 다른 노드가 보낸 이벤트 중 아직 받지 않은 것. 중복은 제거해서 돌려준다
+     */
+    List<InvalidationEvent> poll();
+}
@@ -0,0 +1,98 @@
+package study.datajpa.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Cache;
+import org.hibernate.MappingException;
+import org.hibernate.SessionFactory;
+import org.hibernate.metamodel.spi.MetamodelImplementor;
+import org.hibernate.persister.collection.CollectionPersister;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+import study.datajpa.entity.Member;
+
+import javax.persistence.EntityManagerFactory;
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * 다른 노드에서 받은 이벤트로 이 노드의 캐시를 지운다.
+ * - 하이버네이트 2차 캐시: 엔티티, 해당 엔티티를 담는 컬랙션, 쿼리 캐시
+ * - MemberReadCache: 회원 이벤트만. 팀 이름 변경은 MemberReadCache와 같이 만료시간으로 처리한다
+ * 다른 노드에서 이미 커밋된 변경이므로 트랜잭션 종료를 기다리지 않고 바로 지운다
+ */
+@Slf4j
+@Component
+public class LocalCacheInvalidator {
+
+    private final SessionFactory sessionFactory;
+    private final MemberReadCache memberReadCache;
+
+    public LocalCacheInvalidator(EntityManagerFactory entityManagerFactory, MemberReadCache memberReadCache) {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        this.memberReadCache = memberReadCache;
+    }
+
+    public void apply(List<InvalidationEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        Cache cache = sessionFactory.getCache();
+        MetamodelImplementor metamodel = (MetamodelImplementor) sessionFactory.getMetamodel();
+        for (InvalidationEvent event : events) {
+            EntityPersister persister;
+            try {
+                persister = metamodel.entityPersister(event.getEntityName());
+            } catch (MappingException e) {
+                log.warn("unknown entity in invalidation event {}", event);
+                continue;
+            }
+
+            Serializable id = event.isAll() ? null : parseId(persister, event.getEntityId());
+            if (id == null) {
+                cache.evictEntityData(event.getEntityName());
+            } else {
+                cache.evictEntityData(event.getEntityName(), id);
+            }
+            evictCollectionsOf(cache, metamodel, persister.getMappedClass());
+
+            if (Member.class.getName().equals(event.getEntityName())) {
+                if (id == null) {
+                    memberReadCache.evictAllLocal();
+                } else {
+                    memberReadCache.evictLocal((Long) id);
+                }
+            }
+        }
+        // 쿼리 캐시가 참조하는 테이블 수정시각은 노드마다 따로 관리되므로 다른 노드의 수정을 알수 없다
+        cache.evictQueryRegions();
+    }
+
+    /**
+     * 이벤트의 엔티티를 원소로 가진 컬랙션 (ex. 회원이 바뀌면 team.members). 어느 팀인지 모르므로 영역 전체를 지운다
+     */
+    private static void evictCollectionsOf(Cache cache, MetamodelImplementor metamodel, Class<?> entityClass) {
+        for (CollectionPersister collectionPersister : metamodel.collectionPersisters().values()) {
+            if (collectionPersister.hasCache()
+                    && entityClass.equals(collectionPersister.getElementType().getReturnedClass())) {
+                cache.evictCollectionData(collectionPersister.getRole());
+            }
+        }
+    }
+
+    /**
+     * 모르는 id 타입이면 null을 돌려줘 엔티티 전체를 지운다
+     */
+    private static Serializable parseId(EntityPersister persister, String entityId) {
+        Class<?> idType = persister.getIdentifierType().getReturnedClass();
+        if (Long.class.equals(idType)) {
+            return Long.valueOf(entityId);
+        }
+        if (Integer.class.equals(idType)) {
+            return Integer.valueOf(entityId);
+        }
+        if (String.class.equals(idType)) {
+            return entityId;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,29 @@
+package study.datajpa.cache;
+
+import org.springframework.beans.factory.ObjectProvider;
+import study.datajpa.entity.Member;
+
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+
+/**
+ * 회원이 등록, 수정, 삭제되면 캐시를 무효화한다. flush 시점에 호출된다
+ * 리스너는 EntityManagerFactory를 만들때 생성되는데 MemberReadCache는 레파지토리(EntityManagerFactory)가 필요해서 사용할때 꺼낸다
+ */
+public class MemberCacheInvalidationListener {
+
+    private final ObjectProvider<MemberReadCache> memberReadCache;
+
+    public MemberCacheInvalidationListener(ObjectProvider<MemberReadCache> memberReadCache) {
+        this.memberReadCache = memberReadCache;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void invalidate(Member member) {
+        // 등록도 지운다. 같은 username의 회원이 생기면 username 조회 결과가 달라진다
+        memberReadCache.getObject().invalidate(member.getId(), member.getUsername());
+    }
+}
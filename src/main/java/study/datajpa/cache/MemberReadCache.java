@@ -0,0 +1,266 @@
+package study.datajpa.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.IncorrectResultSizeDataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.dto.MemberSnapshot;
+import study.datajpa.repository.MemberRepository;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+/**
+ * 회원 단건 조회(findById, findMemberByUsername, findOptionalByUsername) 로컬 캐시.
+ * 일부 회원에 조회가 몰리기 때문에 caffeine(W-TinyLFU)으로 자주 조회되는 회원만 남긴다.
+ *
+ * 회원이 바뀌면 MemberCacheInvalidationListener, 벌크 수정은 BulkUpdateInvalidationAspect가 무효화한다.
+ * 다른 노드에서 바뀐 회원은 InvalidationPoller가 evictLocal로 지운다.
+ * 바로 한번, 트랜잭션이 끝난 후(롤백 포함)에 한번 더 무효화한다.
+ * 커밋 전에 다른 스레드가 이전 값을, 같은 트랜잭션이 커밋되지 않은 값을 다시 캐시에 넣을수 있기 때문이다.
+ * 커밋 전에 이전 값을 조회하고 무효화가 끝난 뒤에 넣는 경우도 있어서 조회하는 동안 무효화되었으면 넣지 않는다 (무효화 세대)
+ * 팀 이름 변경은 무효화하지 않는다. expire-after-write-seconds 만큼 이전 이름이 보일수 있다.
+ *
+ * 캐시에 넣을 값은 항상 primary에서 읽는다. readOnly 트랜잭션은 replica로 라우팅되는데(ReplicationRoutingDataSource)
+ * 커밋 후 무효화가 끝난 뒤에도 지연된 replica에서 이전 값을 읽어 만료될때까지 캐시할수 있기 때문이다.
+ */
+@Component
+public class MemberReadCache {
+
+    private static final int GENERATION_STRIPES = 1024;
+
+    private final MemberRepository memberRepository;
+    private final Cache<Long, MemberSnapshot> byId;
+    private final Cache<String, Long> idByUsername;
+    private final int evictAllThreshold;
+    private final TransactionTemplate primaryTransaction;
+
+    // 무효화 세대. 회원별로 두면 계속 늘어나므로 id 해시로 나눈 구간별로 센다
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+    private final AtomicLong allGeneration = new AtomicLong(); // 전체 무효화
+    private final AtomicLong anyGeneration = new AtomicLong(); // 모든 무효화. username 조회는 id를 미리 알수 없어서 사용
+
+    public MemberReadCache(MemberRepository memberRepository, MeterRegistry meterRegistry,
+                           @Value("${study.member-cache.max-size:10000}") long maxSize,
+                           @Value("${study.member-cache.expire-after-write-seconds:600}") long expireAfterWriteSeconds,
+                           @Value("${study.member-cache.evict-all-threshold:1000}") int evictAllThreshold,
+                           PlatformTransactionManager transactionManager) {
+        this.memberRepository = memberRepository;
+        this.evictAllThreshold = evictAllThreshold;
+        // readOnly가 아닌 트랜잭션은 primary를 사용한다
+        this.primaryTransaction = new TransactionTemplate(transactionManager);
+        this.primaryTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.byId = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(expireAfterWriteSeconds))
+                .recordStats()
+                .build();
+        this.idByUsername = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(expireAfterWriteSeconds))
+                .recordStats()
+                .build();
+        // cache.gets{cache=member.byId,result=hit|miss}, cache.evictions ...
+        CaffeineCacheMetrics.monitor(meterRegistry, byId, "member.byId");
+        CaffeineCacheMetrics.monitor(meterRegistry, idByUsername, "member.idByUsername");
+    }
+
+    public Optional<MemberSnapshot> findById(Long id) {
+        MemberSnapshot cached = byId.getIfPresent(id);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        long generation = generationOf(id);
+        Optional<MemberSnapshot> loaded = loadFromPrimary(() -> memberRepository.findSnapshotById(id));
+        // 무효화와 같은 키 잠금 안에서 세대를 확인한다
+        loaded.ifPresent(snapshot -> byId.asMap().compute(id,
+                (key, current) -> generationOf(key) == generation ? snapshot : current));
+        return loaded;
+    }
+
+    /**
+     * username이 같은 회원이 둘 이상이면 findMemberByUsername과 같이 예외
+     */
+    public Optional<MemberSnapshot> findByUsername(String username) {
+        Long id = idByUsername.getIfPresent(username);
+        if (id != null) {
+            Optional<MemberSnapshot> snapshot = findById(id);
+            // 이름이 바뀌었으면 이전 이름으로 남아있던 항목이므로 다시 조회한다
+            if (snapshot.isPresent() && username.equals(snapshot.get().getUsername())) {
+                return snapshot;
+            }
+            idByUsername.invalidate(username);
+        }
+
+        long generation = anyGeneration.get();
+        List<MemberSnapshot> loaded = loadFromPrimary(() -> memberRepository.findSnapshotByUsername(username));
+        if (loaded.size() > 1) {
+            throw new IncorrectResultSizeDataAccessException(1, loaded.size());
+        }
+        if (loaded.isEmpty()) {
+            return Optional.empty();
+        }
+        MemberSnapshot snapshot = loaded.get(0);
+        MemberSnapshot stored = byId.asMap().compute(snapshot.getId(),
+                (key, current) -> anyGeneration.get() == generation ? snapshot : current);
+        if (stored == snapshot) {
+            idByUsername.put(username, snapshot.getId());
+        }
+        return Optional.of(snapshot);
+    }
+
+    /**
+     * 쓰기 트랜잭션 안이면 이미 primary 커넥션이므로 그대로 읽고, 아니면 별도 쓰기 트랜잭션에서 읽는다
+     */
+    private <T> T loadFromPrimary(Supplier<T> load) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return load.get();
+        }
+        return primaryTransaction.execute(status -> load.get());
+    }
+
+    /**
+     * 바로 지우고 트랜잭션 안이면 트랜잭션이 끝난 후에 한번 더 지운다
+     */
+    public void invalidate(Long id, String username) {
+        evict(id, username);
+        PendingEvictions pending = currentPendingEvictions();
+        if (pending != null) {
+            pending.add(id, username, evictAllThreshold);
+        }
+    }
+
+    public void invalidateAll() {
+        evictAll();
+        PendingEvictions pending = currentPendingEvictions();
+        if (pending != null) {
+            pending.all = true;
+        }
+    }
+
+    /**
+     * 다른 노드에서 커밋된 변경. username 항목은 조회할때 이름이 다르면 다시 조회하므로 id만 지운다
+     */
+    public void evictLocal(Long id) {
+        evict(id, null);
+    }
+
+    public void evictAllLocal() {
+        evictAll();
+    }
+
+    public Cache<Long, MemberSnapshot> getByIdCache() {
+        return byId;
+    }
+
+    public Cache<String, Long> getIdByUsernameCache() {
+        return idByUsername;
+    }
+
+    private void evict(Long id, String username) {
+        anyGeneration.incrementAndGet();
+        if (id != null) {
+            byId.asMap().compute(id, (key, current) -> {
+                generations.incrementAndGet(stripeOf(key));
+                return null;
+            });
+        }
+        if (username != null) {
+            idByUsername.invalidate(username);
+        }
+    }
+
+    private void evictAll() {
+        anyGeneration.incrementAndGet();
+        allGeneration.incrementAndGet();
+        byId.invalidateAll();
+        idByUsername.invalidateAll();
+    }
+
+    private long generationOf(Long id) {
+        return allGeneration.get() + generations.get(stripeOf(id));
+    }
+
+    private static int stripeOf(Long id) {
+        return (id.hashCode() & Integer.MAX_VALUE) % GENERATION_STRIPES;
+    }
+
+    /**
+     * 트랜잭션마다 지울 키를 모아서 동기화 하나로 처리한다. 대량 등록처럼 한 트랜잭션에서 많이 바뀌어도 콜백이 쌓이지 않는다
+     * 트랜잭션 밖이면 null
+     */
+    private PendingEvictions currentPendingEvictions() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return null;
+        }
+        PendingEvictions pending = (PendingEvictions) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            PendingEvictions created = new PendingEvictions();
+            TransactionSynchronizationManager.bindResource(this, created);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                // REQUIRES_NEW 트랜잭션이 바깥 트랜잭션의 키를 쓰지 않도록 같이 내려놓는다
+                @Override
+                public void suspend() {
+                    TransactionSynchronizationManager.unbindResource(MemberReadCache.this);
+                }
+
+                @Override
+                public void resume() {
+                    TransactionSynchronizationManager.bindResource(MemberReadCache.this, created);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(MemberReadCache.this);
+                    if (created.all) {
+                        evictAll();
+                    } else {
+                        created.ids.forEach(id -> evict(id, null));
+                        created.usernames.forEach(username -> evict(null, username));
+                    }
+                }
+            });
+            pending = created;
+        }
+        return pending;
+    }
+
+    // 현재 트랜잭션에서 바뀐 회원. evict-all-threshold 를 넘으면 키를 버리고 전체를 지운다
+    private static class PendingEvictions {
+        private final Set<Long> ids = new HashSet<>();
+        private final Set<String> usernames = new HashSet<>();
+        private boolean all;
+
+        void add(Long id, String username, int threshold) {
+            if (all) {
+                return;
+            }
+            if (id != null) {
+                ids.add(id);
+            }
+            if (username != null) {
+                usernames.add(username);
+            }
+            if (ids.size() > threshold) {
+                all = true;
+                ids.clear();
+                usernames.clear();
+            }
+        }
+    }
+}
@@ -0,0 +1,259 @@
+package study.datajpa.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * cache_invalidation_event 테이블을 통해 이벤트를 주고받는다.
+ * - 저장: JpaTransactionManager가 jdbc 커넥션도 같은 트랜잭션으로 묶어주므로 JdbcTemplate로 저장해도 엔티티 변경과 같이 커밋된다
+ * - 조회: 마지막으로 읽은 id 이후의 이벤트를 batch-size 건씩 읽는다
+ *
+ * id는 insert 순서라서 먼저 insert 하고 늦게 커밋된 이벤트는 더 큰 id를 먼저 읽은 뒤에 보이게 된다.
+ * 그래서 읽은 id 사이에 비어있는 id(아직 커밋되지 않았거나 롤백된 이벤트)를 기억해두고 보일때까지 다시 읽는다.
+ * created_at은 트랜잭션 시작 시각이라 오래 걸린 트랜잭션의 이벤트를 시각으로 거르면 놓치게 된다.
+ * 롤백된 id는 영영 보이지 않으므로 gap-timeout-millis 가 지나면 더 기다리지 않는다.
+ *
+ * study.invalidation.enabled=false 이면 빈을 등록하지 않아 리스너도 이벤트를 저장하지 않는다.
+ */
+@Slf4j
+@Component
+@ConditionalOnExpression("${study.invalidation.enabled:true} and '${study.invalidation.transport:outbox}' == 'outbox'")
+public class OutboxInvalidationTransport implements InvalidationTransport {
+
+    private static final String SELECT = "select id, node_id, entity_name, entity_id from cache_invalidation_event";
+    private static final RowMapper<Row> ROW_MAPPER = (rs, rowNum) -> new Row(rs.getLong("id"), rs.getString("node_id"),
+            new InvalidationEvent(rs.getString("entity_name"), rs.getString("entity_id")));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String nodeId;
+    private final int batchSize;
+    private final int coalesceThreshold;
+    private final long gapTimeoutMillis;
+    private final int maxGaps;
+    private final long retentionMillis;
+
+    private Long cursor; // 마지막으로 읽은 이벤트 id. 시작할때의 최대값부터 읽는다 (그 전에 캐시된 값은 없다)
+    private final TreeMap<Long, Long> gaps = new TreeMap<>(); // cursor 아래에서 아직 보이지 않은 id -> 기다리는 기한
+
+    public OutboxInvalidationTransport(JdbcTemplate jdbcTemplate,
+                                       @Value("${study.invalidation.node-id:}") String nodeId,
+                                       @Value("${study.invalidation.batch-size:500}") int batchSize,
+                                       @Value("${study.invalidation.coalesce-threshold:100}") int coalesceThreshold,
+                                       @Value("${study.invalidation.gap-timeout-millis:600000}") long gapTimeoutMillis,
+                                       @Value("${study.invalidation.max-gaps:10000}") int maxGaps,
+                                       @Value("${study.invalidation.retention-millis:3600000}") long retentionMillis) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.nodeId = nodeId.isEmpty() ? UUID.randomUUID().toString() : nodeId;
+        this.batchSize = batchSize;
+        this.coalesceThreshold = coalesceThreshold;
+        this.gapTimeoutMillis = gapTimeoutMillis;
+        this.maxGaps = maxGaps;
+        this.retentionMillis = retentionMillis;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * 한 트랜잭션 안에서 같은 이벤트는 한번만 저장한다.
+     * 같은 엔티티가 coalesce-threshold 건을 넘으면 엔티티 전체 이벤트 하나로 바꾸고 이후는 저장하지 않는다 (대량 등록 등)
+     */
+    @Override
+    public void publish(InvalidationEvent event) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            insert(event);
+            return;
+        }
+
+        PublishedEvents published = currentPublishedEvents();
+        if (published.allEntities.contains(event.getEntityName())) {
+            return;
+        }
+        if (event.isAll() || published.countOf(event.getEntityName()) >= coalesceThreshold) {
+            published.allEntities.add(event.getEntityName());
+            insert(new InvalidationEvent(event.getEntityName(), null));
+            return;
+        }
+        if (published.events.add(event)) {
+            published.increase(event.getEntityName());
+            insert(event);
+        }
+    }
+
+    /**
+     * 테이블은 하이버네이트가 만들기 때문에 컨텍스트가 준비된 후에 읽는다
+     */
+    @EventListener(ContextRefreshedEvent.class)
+    public synchronized void initCursor() {
+        if (cursor == null) {
+            cursor = jdbcTemplate.queryForObject("select coalesce(max(id), 0) from cache_invalidation_event", Long.class);
+        }
+    }
+
+    @Override
+    public synchronized List<InvalidationEvent> poll() {
+        initCursor();
+
+        List<Row> rows = new ArrayList<>(readGaps());
+        List<Row> next = jdbcTemplate.query(SELECT + " where id > ? order by id limit ?", ROW_MAPPER, cursor, batchSize);
+        long deadline = System.currentTimeMillis() + gapTimeoutMillis;
+        for (Row row : next) {
+            // 건너뛴 id는 먼저 insert 하고 아직 커밋되지 않은 이벤트일수 있다
+            for (long id = Math.max(cursor + 1, row.id - maxGaps); id < row.id; id++) {
+                gaps.put(id, deadline);
+            }
+            cursor = row.id;
+            rows.add(row);
+        }
+        while (gaps.size() > maxGaps) {
+            log.warn("too many cache invalidation gaps, give up id {}", gaps.pollFirstEntry().getKey());
+        }
+
+        Set<InvalidationEvent> events = new LinkedHashSet<>();
+        for (Row row : rows) {
+            if (!nodeId.equals(row.nodeId)) {
+                events.add(row.event);
+            }
+        }
+        return coalesce(events);
+    }
+
+    /**
+     * 비어있던 id 중 이제 커밋되어 보이는 이벤트. 기한이 지난 id는 롤백된 것으로 보고 지운다
+     */
+    private List<Row> readGaps() {
+        long now = System.currentTimeMillis();
+        gaps.values().removeIf(deadline -> deadline < now);
+
+        List<Row> rows = new ArrayList<>();
+        List<Long> ids = new ArrayList<>(gaps.keySet());
+        for (int from = 0; from < ids.size(); from += batchSize) {
+            List<Long> chunk = ids.subList(from, Math.min(from + batchSize, ids.size()));
+            String placeholders = chunk.stream().map(id -> "?").collect(Collectors.joining(", "));
+            rows.addAll(jdbcTemplate.query(SELECT + " where id in (" + placeholders + ")", ROW_MAPPER, chunk.toArray()));
+        }
+        for (Row row : rows) {
+            gaps.remove(row.id);
+        }
+        return rows;
+    }
+
+    /**
+     * 보관기간이 지난 이벤트 삭제. 모든 노드가 이미 읽었다고 본다. 여러 노드가 같이 지워도 된다
+     */
+    @Scheduled(fixedDelayString = "${study.invalidation.purge-interval-millis:600000}")
+    public int purge() {
+        int deleted = jdbcTemplate.update("delete from cache_invalidation_event where created_at < ?",
+                new Timestamp(dbNow() - retentionMillis));
+        if (deleted > 0) {
+            log.debug("purged {} cache invalidation events", deleted);
+        }
+        return deleted;
+    }
+
+    // created_at과 같은 db 시각으로 비교한다. 노드마다 시계가 다를수 있다
+    private long dbNow() {
+        return jdbcTemplate.queryForObject("select current_timestamp", Timestamp.class).getTime();
+    }
+
+    private void insert(InvalidationEvent event) {
+        jdbcTemplate.update("insert into cache_invalidation_event (node_id, entity_name, entity_id, created_at)" +
+                        " values (?, ?, ?, current_timestamp)",
+                nodeId, event.getEntityName(), event.getEntityId());
+    }
+
+    /**
+     * 엔티티 전체 이벤트가 있으면 같은 엔티티의 개별 이벤트는 뺀다
+     */
+    private static List<InvalidationEvent> coalesce(Set<InvalidationEvent> events) {
+        Set<String> allEntities = new HashSet<>();
+        for (InvalidationEvent event : events) {
+            if (event.isAll()) {
+                allEntities.add(event.getEntityName());
+            }
+        }
+        List<InvalidationEvent> result = new ArrayList<>();
+        for (InvalidationEvent event : events) {
+            if (event.isAll() || !allEntities.contains(event.getEntityName())) {
+                result.add(event);
+            }
+        }
+        return result;
+    }
+
+    private PublishedEvents currentPublishedEvents() {
+        PublishedEvents published = (PublishedEvents) TransactionSynchronizationManager.getResource(this);
+        if (published == null) {
+            published = new PublishedEvents();
+            TransactionSynchronizationManager.bindResource(this, published);
+            PublishedEvents bound = published;
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                // REQUIRES_NEW 로 시작한 트랜잭션은 바깥 트랜잭션의 저장 목록을 보지 않는다
+                @Override
+                public void suspend() {
+                    TransactionSynchronizationManager.unbindResource(OutboxInvalidationTransport.this);
+                }
+
+                @Override
+                public void resume() {
+                    TransactionSynchronizationManager.bindResource(OutboxInvalidationTransport.this, bound);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(OutboxInvalidationTransport.this);
+                }
+            });
+        }
+        return published;
+    }
+
+    // 현재 트랜잭션에서 저장한 이벤트
+    private static class PublishedEvents {
+        private final Set<InvalidationEvent> events = new HashSet<>();
+        private final Set<String> allEntities = new HashSet<>();
+        private final Map<String, Integer> counts = new HashMap<>();
+
+        int countOf(String entityName) {
+            return counts.getOrDefault(entityName, 0);
+        }
+
+        void increase(String entityName) {
+            counts.merge(entityName, 1, Integer::sum);
+        }
+    }
+
+    private static class Row {
+        private final long id;
+        private final String nodeId;
+        private final InvalidationEvent event;
+
+        Row(long id, String nodeId, InvalidationEvent event) {
+            this.id = id;
+            this.nodeId = nodeId;
+            this.event = event;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package study.datajpa.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.jdbc.DataSourceUnwrapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 커넥션 획득 대기시간과 커넥션 사용시간(db 작업시간)을 비교해서 풀 최대 크기를 조정한다.
+ * - 대기하는 스레드가 있고 평균 대기시간이 평균 사용시간의 grow-ratio 배를 넘으면 키운다. 풀이 모자라서 기다리는 상황
+ * - 대기하는 스레드가 없고 대기시간이 사용시간의 shrink-ratio 배보다 작고 놀고 있는 커넥션이 있으면 하나씩 줄인다
+ * db 자체가 느려지면 사용시간도 같이 늘어나므로 커넥션을 더 늘려 db를 더 바쁘게 만들지 않는다.
+ *
+ * 지표는 스프링 부트가 등록하는 hikaricp.connections.acquire, hikaricp.connections.usage를 사용한다.
+ * 읽기/쓰기 DataSource를 나눈 경우(ReplicationDataSourceConfig)는 풀을 찾을수 없어 동작하지 않는다.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "study.pool.adaptive.enabled", havingValue = "true")
+public class AdaptivePoolSizer {
+
+    private final HikariDataSource hikari;
+    private final MeterRegistry meterRegistry;
+    private final int minSize;
+    private final int maxSize;
+    private final double growRatio;
+    private final double shrinkRatio;
+
+    private TimerSnapshot lastAcquire = TimerSnapshot.EMPTY;
+    private TimerSnapshot lastUsage = TimerSnapshot.EMPTY;
+
+    public AdaptivePoolSizer(DataSource dataSource, MeterRegistry meterRegistry,
+                             @Value("${study.pool.adaptive.min-size:5}") int minSize,
+                             @Value("${study.pool.adaptive.max-size:50}") int maxSize,
+                             @Value("${study.pool.adaptive.grow-ratio:0.5}") double growRatio,
+                             @Value("${study.pool.adaptive.shrink-ratio:0.05}") double shrinkRatio) {
+        this.hikari = DataSourceUnwrapper.unwrap(dataSource, HikariDataSource.class);
+        this.meterRegistry = meterRegistry;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.growRatio = growRatio;
+        this.shrinkRatio = shrinkRatio;
+        if (hikari == null) {
+            log.warn("hikari pool not found. adaptive pool sizing disabled");
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${study.pool.adaptive.interval-millis:10000}")
+    public void adjust() {
+        HikariPoolMXBean pool = hikari == null ? null : hikari.getHikariPoolMXBean();
+        if (pool == null) {
+            return; // 아직 풀이 시작되지 않음
+        }
+
+        TimerSnapshot acquire = TimerSnapshot.of(timer("hikaricp.connections.acquire"));
+        TimerSnapshot usage = TimerSnapshot.of(timer("hikaricp.connections.usage"));
+        double avgWaitMillis = acquire.meanMillisSince(lastAcquire);
+        double avgUsageMillis = usage.meanMillisSince(lastUsage);
+        lastAcquire = acquire;
+        lastUsage = usage;
+
+        int current = hikari.getHikariConfigMXBean().getMaximumPoolSize();
+        int next = nextSize(current, pool.getIdleConnections(), pool.getThreadsAwaitingConnection(),
+                avgWaitMillis, avgUsageMillis, minSize, maxSize, growRatio, shrinkRatio);
+        if (next != current) {
+            log.info("pool size {} -> {} (wait={}ms, usage={}ms, pending={})",
+                    current, next, avgWaitMillis, avgUsageMillis, pool.getThreadsAwaitingConnection());
+            hikari.getHikariConfigMXBean().setMinimumIdle(Math.min(hikari.getMinimumIdle(), next));
+            hikari.getHikariConfigMXBean().setMaximumPoolSize(next);
+        }
+    }
+
+    static int nextSize(int current, int idle, int pending, double avgWaitMillis, double avgUsageMillis,
+                        int minSize, int maxSize, double growRatio, double shrinkRatio) {
+        if (pending > 0 && avgWaitMillis > avgUsageMillis * growRatio) {
+            return Math.min(maxSize, current + Math.max(1, current / 4)); // 25%씩 키운다
+        }
+        if (pending == 0 && idle > 0 && avgWaitMillis < avgUsageMillis * shrinkRatio) {
+            return Math.max(minSize, current - 1);
+        }
+        return Math.max(minSize, Math.min(maxSize, current));
+    }
+
+    private Timer timer(String name) {
+        return meterRegistry.find(name).tag("pool", hikari.getPoolName()).timer();
+    }
+
+    /**
+     * 누적 지표라서 이전 값과의 차이로 구간 평균을 구한다
+     */
+    private static class TimerSnapshot {
+        static final TimerSnapshot EMPTY = new TimerSnapshot(0, 0);
+
+        private final long count;
+        private final double totalMillis;
+
+        TimerSnapshot(long count, double totalMillis) {
+            this.count = count;
+            this.totalMillis = totalMillis;
+        }
+
+        static TimerSnapshot of(Timer timer) {
+            return timer == null ? EMPTY : new TimerSnapshot(timer.count(), timer.totalTime(TimeUnit.MILLISECONDS));
+        }
+
+        double meanMillisSince(TimerSnapshot previous) {
+            long countDelta = count - previous.count;
+            return countDelta <= 0 ? 0 : (totalMillis - previous.totalMillis) / countDelta;
+        }
+    }
+}
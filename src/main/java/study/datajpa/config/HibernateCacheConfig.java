@@ -0,0 +1,79 @@
+package study.datajpa.config;
+
+import org.ehcache.config.builders.CacheConfigurationBuilder;
+import org.ehcache.config.builders.ExpiryPolicyBuilder;
+import org.ehcache.config.builders.ResourcePoolsBuilder;
+import org.ehcache.jsr107.Eh107Configuration;
+import org.ehcache.jsr107.EhcacheCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import java.net.URI;
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * 하이버네이트 2차 캐시 설정
+ * 캐시 영역별 최대 건수, 만료시간을 application.yml 에서 지정할 수 있도록 캐시매니저를 직접 만들어 하이버네이트에 넘긴다.
+ */
+@Configuration
+public class HibernateCacheConfig {
+
+    public static final String TEAM_REGION = "team";
+    public static final String TEAM_MEMBERS_REGION = "team.members";
+    public static final String TEAM_QUERY_REGION = "team-query";
+    // 쿼리 캐시가 결과의 유효성을 판단하는 테이블별 수정시각. 만료되면 안된다.
+    public static final String UPDATE_TIMESTAMPS_REGION = "default-update-timestamps-region";
+
+    @Value("${study.cache.team.max-entries:10000}")
+    private long teamMaxEntries;
+
+    @Value("${study.cache.team.ttl-seconds:600}")
+    private long teamTtlSeconds;
+
+    @Value("${study.cache.team-members.max-entries:1000}")
+    private long teamMembersMaxEntries;
+
+    @Value("${study.cache.team-members.ttl-seconds:600}")
+    private long teamMembersTtlSeconds;
+
+    @Value("${study.cache.team-query.max-entries:100}")
+    private long teamQueryMaxEntries;
+
+    @Value("${study.cache.team-query.ttl-seconds:60}")
+    private long teamQueryTtlSeconds;
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager() {
+        CachingProvider provider = Caching.getCachingProvider(EhcacheCachingProvider.class.getName());
+        // 같은 jvm에 컨텍스트가 여러개 떠도 캐시를 공유하지 않도록 컨텍스트마다 다른 uri를 사용한다
+        CacheManager cacheManager = provider.getCacheManager(
+                URI.create("study:hibernate:" + UUID.randomUUID()), getClass().getClassLoader());
+
+        createCache(cacheManager, TEAM_REGION, teamMaxEntries, Duration.ofSeconds(teamTtlSeconds));
+        createCache(cacheManager, TEAM_MEMBERS_REGION, teamMembersMaxEntries, Duration.ofSeconds(teamMembersTtlSeconds));
+        createCache(cacheManager, TEAM_QUERY_REGION, teamQueryMaxEntries, Duration.ofSeconds(teamQueryTtlSeconds));
+        createCache(cacheManager, UPDATE_TIMESTAMPS_REGION, 1000, null);
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer hibernateCacheCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+    }
+
+    private void createCache(CacheManager cacheManager, String region, long maxEntries, Duration ttl) {
+        CacheConfigurationBuilder<Object, Object> builder = CacheConfigurationBuilder
+                .newCacheConfigurationBuilder(Object.class, Object.class, ResourcePoolsBuilder.heap(maxEntries));
+        if (ttl != null) {
+            builder = builder.withExpiry(ExpiryPolicyBuilder.timeToLiveExpiration(ttl));
+        }
+        cacheManager.createCache(region, Eh107Configuration.fromEhcacheCacheConfiguration(builder.build()));
+    }
+}
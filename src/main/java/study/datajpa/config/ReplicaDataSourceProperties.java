@@ -0,0 +1,24 @@
+package study.datajpa.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 읽기전용 복제 DB 설정. url이 있을때만 ReplicationDataSourceConfig가 동작한다.
+ */
+@Getter @Setter
+@ConfigurationProperties(prefix = "study.datasource.replica")
+public class ReplicaDataSourceProperties {
+    private String url;
+    private String username;
+    private String password;
+    private String driverClassName;
+    private int maximumPoolSize = 10;
+
+    /** 복제 지연(초)을 조회하는 쿼리. 없으면 접속 가능 여부만 확인한다 */
+    private String lagQuery;
+    /** 복제 지연이 이 시간(초)을 넘으면 읽기도 primary로 보낸다 */
+    private long maxLagSeconds = 5;
+    private long checkIntervalMillis = 5000;
+}
@@ -0,0 +1,71 @@
+package study.datajpa.config;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 주기적으로 replica 상태를 확인한다. 접속이 안되거나 복제 지연이 기준을 넘으면 사용불가로 표시한다.
+ */
+@Slf4j
+public class ReplicaLagMonitor implements AutoCloseable {
+
+    private final DataSource replica;
+    private final String lagQuery;
+    private final long maxLagSeconds;
+    private ScheduledExecutorService scheduler;
+    private volatile boolean available = true;
+
+    public ReplicaLagMonitor(DataSource replica, String lagQuery, long maxLagSeconds) {
+        this.replica = replica;
+        this.lagQuery = lagQuery;
+        this.maxLagSeconds = maxLagSeconds;
+    }
+
+    public void start(long intervalMillis) {
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "replica-lag-monitor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::check, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public boolean isAvailable() {
+        return available;
+    }
+
+    public void check() {
+        boolean result;
+        try (Connection connection = replica.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(lagQuery == null || lagQuery.isEmpty() ? "select 1" : lagQuery)) {
+            long lagSeconds = lagQuery == null || lagQuery.isEmpty() || !rs.next() ? 0 : rs.getLong(1);
+            result = lagSeconds <= maxLagSeconds;
+            if (!result) {
+                log.warn("replica lag {}s exceeds {}s. reads go to primary", lagSeconds, maxLagSeconds);
+            }
+        } catch (SQLException e) {
+            log.warn("replica check failed. reads go to primary", e);
+            result = false;
+        }
+        if (result && !available) {
+            log.info("replica is available again");
+        }
+        available = result;
+    }
+
+    @Override
+    public void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+}
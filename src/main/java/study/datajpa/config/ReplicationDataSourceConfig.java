@@ -0,0 +1,93 @@
+package study.datajpa.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.annotation.PreDestroy;
+import javax.sql.DataSource;
+
+/**
+ * study.datasource.replica.url 이 설정되면 읽기/쓰기 DataSource를 나눈다.
+ * - spring.datasource : primary (쓰기)
+ * - study.datasource.replica : replica (readOnly 트랜잭션)
+ * spring data jpa의 조회 메서드(findById, findAll 등)는 기본으로 readOnly 트랜잭션이라 replica를 사용한다.
+ *
+ * 커넥션 풀은 빈으로 등록하지 않는다. 빈으로 등록하면 p6spy가 풀과 라우팅 DataSource를 모두 감싸서 sql이 중복 기록된다.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "study.datasource.replica", name = "url")
+@EnableConfigurationProperties(ReplicaDataSourceProperties.class)
+public class ReplicationDataSourceConfig {
+
+    private HikariDataSource primary;
+    private HikariDataSource replica;
+    private ReplicaLagMonitor replicaLagMonitor;
+
+    @Bean
+    public DataSource dataSource(DataSourceProperties primaryProperties, ReplicaDataSourceProperties replicaProperties,
+                                 ObjectProvider<MeterRegistry> meterRegistry, Environment environment) {
+        primary = createPrimary(primaryProperties, environment);
+
+        DataSourceBuilder<HikariDataSource> replicaBuilder = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .url(replicaProperties.getUrl())
+                .username(replicaProperties.getUsername())
+                .password(replicaProperties.getPassword());
+        if (replicaProperties.getDriverClassName() != null) {
+            replicaBuilder.driverClassName(replicaProperties.getDriverClassName());
+        }
+        replica = replicaBuilder.build();
+        replica.setPoolName("replica");
+        replica.setMaximumPoolSize(replicaProperties.getMaximumPoolSize());
+        replica.setReadOnly(true);
+
+        // 풀이 빈이 아니라서 스프링 부트가 지표를 등록하지 않는다. hikaricp.connections.*{pool=primary|replica}
+        meterRegistry.ifAvailable(registry -> {
+            primary.setMetricRegistry(registry);
+            replica.setMetricRegistry(registry);
+        });
+
+        replicaLagMonitor = new ReplicaLagMonitor(replica, replicaProperties.getLagQuery(), replicaProperties.getMaxLagSeconds());
+        replicaLagMonitor.start(replicaProperties.getCheckIntervalMillis());
+
+        return new LazyConnectionDataSourceProxy(new ReplicationRoutingDataSource(primary, replica, replicaLagMonitor));
+    }
+
+    /**
+     * 스프링 부트가 만드는 풀과 같이 spring.datasource.hikari.* (maximum-pool-size, connection-timeout 등)를 적용한다
+     */
+    static HikariDataSource createPrimary(DataSourceProperties properties, Environment environment) {
+        HikariDataSource primary = properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+        if (primary.getPoolName() == null) {
+            primary.setPoolName("primary");
+        }
+        return primary;
+    }
+
+    @PreDestroy
+    public void close() {
+        if (replicaLagMonitor != null) {
+            replicaLagMonitor.close();
+        }
+        if (replica != null) {
+            replica.close();
+        }
+        if (primary != null) {
+            primary.close();
+        }
+    }
+}
@@ -1,49 +1,205 @@
 package study.datajpa.controller;
 
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import study.datajpa.cache.MemberReadCache;
+import study.datajpa.dto.CursorPage;
+import study.datajpa.dto.ImportResult;
+import study.datajpa.dto.MemberCursor;
 import study.datajpa.dto.MemberDto;
+import study.datajpa.dto.MemberSearchCondition;
+import study.datajpa.dto.MemberSnapshot;
+import study.datajpa.dto.PageResult;
+import study.datajpa.dto.VersionStamp;
 import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberQueryRepository;
 import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.support.TableVersions;
+import study.datajpa.service.ImportFormat;
+import study.datajpa.service.ImportRejectedException;
+import study.datajpa.service.MemberExportService;
+import study.datajpa.service.MemberImportService;
+import study.datajpa.service.MemberQueryService;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
 
 @RestController
 @RequiredArgsConstructor
 public class MemberController {
 
+    private static final int MAX_CURSOR_PAGE_SIZE = 2000;
+
     private final MemberRepository memberRepository;
+    private final MemberQueryRepository memberQueryRepository;
+    private final MemberImportService memberImportService;
+    private final MemberExportService memberExportService;
+    private final MemberQueryService memberQueryService;
+    private final MemberReadCache memberReadCache;
+    private final TableVersions tableVersions;
 
+    /**
+     * 클라이언트가 가진 버전(If-None-Match, If-Modified-Since)이 최신이면 304를 응답한다
+     * 회원 조회 캐시(MemberReadCache)에 버전도 들어있어서 캐시에 있으면 db를 조회하지 않는다
+     */
     @GetMapping("/members/{id}")
-    public String findMember(@PathVariable("id") Long id) {
-        Member member = memberRepository.findById(id).get();
-        return member.getUsername();
+    public ResponseEntity<String> findMember(@PathVariable("id") Long id, WebRequest request) {
+        Optional<MemberSnapshot> member = memberReadCache.findById(id);
+        if (!member.isPresent()) {
+            return ResponseEntity.notFound().build();
+        }
+        VersionStamp stamp = member.get().toVersionStamp();
+        if (request.checkNotModified(stamp.getEtag(), stamp.lastModifiedMillis())) {
+            return null;
+        }
+        return ResponseEntity.ok(member.get().getUsername());
+    }
+
+    /**
+     * username 단건 조회 (findMemberByUsername, findOptionalByUsername 의 조회 모델). 같은 username이 둘 이상이면 예외
+     */
+    @GetMapping("/members/by-username/{username}")
+    public ResponseEntity<MemberSnapshot> findMemberByUsername(@PathVariable("username") String username, WebRequest request) {
+        Optional<MemberSnapshot> member = memberReadCache.findByUsername(username);
+        if (!member.isPresent()) {
+            return ResponseEntity.notFound().build();
+        }
+        VersionStamp stamp = member.get().toVersionStamp();
+        if (request.checkNotModified(stamp.getEtag(), stamp.lastModifiedMillis())) {
+            return null;
+        }
+        return ResponseEntity.ok(member.get());
     }
 
     /**
-     * 도메이클래스 컨버터가 화면에 넘어온 id값을 가지고 레파지토리를 통해 조회해옴
-     * 권장하지 않음. 간단한경우에만 사용
-     * 조회용으로만 사용해야함 트랜젝션상태에서 조회한게 아니기때문
+     * 도메인 클래스 컨버터(@PathVariable Member)로 엔티티를 받던 방식 대신 조회 서비스가 만든 DTO를 응답한다.
+     * 트랜잭션 밖에서 엔티티를 다루려면 open-in-view가 켜져 있어야 해서 응답이 끝날때까지 커넥션을 잡고 있게 된다.
      */
     @GetMapping("/members2/{id}")
-    public String findMember(@PathVariable("id") Member member) {
-        return member.getUsername();
+    public MemberDto findMember2(@PathVariable("id") Long id) {
+        return memberQueryService.findMember(id);
     }
 
     @GetMapping("/members")
-    public Page<MemberDto> list(@PageableDefault(size = 5) Pageable pageable) { // 코드에한 설정이 글로벌 설정보다 우선함
+    public PageResult<MemberDto> list(@PageableDefault(size = 5) Pageable pageable, WebRequest request) { // 코드에한 설정이 글로벌 설정보다 우선함
         /**
          * 컨트롤러에 pageable이 있으면 PageRequest 객체를 만들어 세팅해줌
          * 디폴트 사이즈는 20
          *
          * http://localhost:8080/members?page=0&size=3&sort=id,desc&ort=username,desc 호출시
          * -> page는 0번 출력건수3 id기준 역순정렬 username 기준 역순정렬
+         *
+         * 전체 건수는 study.paging.totals.strategies.members 설정에 따라 구하고 응답의 totalStrategy로 알려준다
+         *
+         * 회원, 팀 테이블의 변경 번호로 ETag를 만든다. 둘다 바뀌지 않았으면 페이지를 조회하지 않고 304
          */
-        return memberRepository.findAll(pageable)
-                .map(MemberDto::new);
+        VersionStamp stamp = tableVersions.stamp(TableVersions.MEMBER, TableVersions.TEAM);
+        if (request.checkNotModified(stamp.getEtag(), stamp.lastModifiedMillis())) {
+            return null;
+        }
+        return memberQueryService.findMembers(toMemberDtoSort(pageable));
+    }
+
+    /**
+     * 키셋(커서) 페이징. 응답의 nextCursor를 다음 요청의 cursor 파라미터로 넘긴다.
+     * http://localhost:8080/members/cursor?size=3 -> http://localhost:8080/members/cursor?size=3&cursor=...
+     */
+    @GetMapping("/members/cursor")
+    public CursorPage<MemberDto> listByCursor(@RequestParam(value = "cursor", required = false) String cursor,
+                                              @RequestParam(value = "size", defaultValue = "10") int size) {
+        int limit = Math.min(Math.max(size, 1), MAX_CURSOR_PAGE_SIZE);
+        MemberCursor after;
+        try {
+            after = cursor == null ? null : MemberCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+
+        // 한건 더 조회해서 다음 페이지가 있는지 확인한다 (Slice와 같은 방식)
+        List<MemberDto> result = memberRepository.findMemberDtoByCursor(after, limit + 1);
+        if (result.size() <= limit) {
+            return new CursorPage<>(result, null);
+        }
+
+        List<MemberDto> content = result.subList(0, limit);
+        MemberDto last = content.get(limit - 1);
+        return new CursorPage<>(content, new MemberCursor(last.getUsername(), last.getId()).encode());
+    }
+
+    /**
+     * 동적 검색. 조건은 MemberSearchCondition 참고
+     * http://localhost:8080/members/search?usernamePrefix=user&ageGoe=10&ageLoe=20&page=1&size=10
+     */
+    @GetMapping("/members/search")
+    public List<MemberDto> search(MemberSearchCondition condition, @PageableDefault(size = 20) Pageable pageable) {
+        return memberQueryRepository.search(condition, pageable);
+    }
+
+    /**
+     * 요청 본문을 스트림으로 읽어 대량 등록한다.
+     * curl -X POST -H "Content-Type: text/csv" --data-binary @members.csv http://localhost:8080/members/import
+     */
+    @PostMapping(value = "/members/import", consumes = {"text/csv", "application/x-ndjson"})
+    public ImportResult importMembers(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                      InputStream body) throws IOException {
+        ImportFormat format;
+        try {
+            format = ImportFormat.fromContentType(contentType);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        return memberImportService.importMembers(body, format);
+    }
+
+    /**
+     * 형식이 맞지 않는 줄이 너무 많아 중단한 경우. 중단할때까지의 결과(건너뛴 줄 번호, 이유)를 응답한다
+     */
+    @ExceptionHandler(ImportRejectedException.class)
+    public ResponseEntity<ImportResult> importRejected(ImportRejectedException e) {
+        return ResponseEntity.badRequest().body(e.getResult());
+    }
+
+    /**
+     * 전체 회원을 ndjson으로 내려준다. 응답 크기를 미리 알수 없으므로 chunked로 전송된다.
+     */
+    @GetMapping(value = "/members/export", produces = "application/x-ndjson")
+    public void exportMembers(HttpServletResponse response) throws IOException {
+        response.setContentType("application/x-ndjson");
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        memberExportService.exportNdjson(response.getOutputStream());
+    }
+
+    /**
+     * 화면에서 넘어온 teamName 정렬을 조회 쿼리의 팀 별칭으로 바꿔준다
+     */
+    private Pageable toMemberDtoSort(Pageable pageable) {
+        if (pageable.getSort().getOrderFor("teamName") == null) {
+            return pageable;
+        }
+        List<Sort.Order> orders = pageable.getSort().stream()
+                .map(order -> "teamName".equals(order.getProperty()) ? order.withProperty("t.name") : order)
+                .collect(Collectors.toList());
+        return PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), Sort.by(orders));
     }
 
     // 스프링이 구동한뒤 실행됨
@@ -0,0 +1,82 @@
+package study.datajpa.controller;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import study.datajpa.cache.MemberReadCache;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 운영중 성능 지표 확인용
+ */
+@RestController
+@RequiredArgsConstructor
+public class StatsController {
+
+    private final EntityManagerFactory emf;
+    private final MemberReadCache memberReadCache;
+
+    /**
+     * 하이버네이트 2차 캐시, 쿼리 캐시의 적중/실패 건수
+     * hibernate.generate_statistics가 true 여야 집계된다
+     */
+    @GetMapping("/stats/cache")
+    public Map<String, Object> cacheStats() {
+        Statistics statistics = emf.unwrap(SessionFactory.class).getStatistics();
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("secondLevelCacheHitCount", statistics.getSecondLevelCacheHitCount());
+        result.put("secondLevelCacheMissCount", statistics.getSecondLevelCacheMissCount());
+        result.put("secondLevelCachePutCount", statistics.getSecondLevelCachePutCount());
+        result.put("queryCacheHitCount", statistics.getQueryCacheHitCount());
+        result.put("queryCacheMissCount", statistics.getQueryCacheMissCount());
+        result.put("queryCachePutCount", statistics.getQueryCachePutCount());
+
+        Map<String, Object> regions = new LinkedHashMap<>();
+        for (String regionName : statistics.getSecondLevelCacheRegionNames()) {
+            CacheRegionStatistics region = statistics.getCacheRegionStatistics(regionName);
+            if (region == null) {
+                continue;
+            }
+            Map<String, Object> regionStats = new LinkedHashMap<>();
+            regionStats.put("hitCount", region.getHitCount());
+            regionStats.put("missCount", region.getMissCount());
+            regionStats.put("putCount", region.getPutCount());
+            regionStats.put("elementCountInMemory", region.getElementCountInMemory());
+            regions.put(regionName, regionStats);
+        }
+        result.put("regions", regions);
+        return result;
+    }
+
+    /**
+     * 회원 조회 로컬 캐시 적중률, 제거 건수
+     * micrometer 지표로도 등록된다. /actuator/metrics/cache.gets?tag=cache:member.byId
+     */
+    @GetMapping("/stats/member-cache")
+    public Map<String, Object> memberCacheStats() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("byId", cacheStats(memberReadCache.getByIdCache()));
+        result.put("idByUsername", cacheStats(memberReadCache.getIdByUsernameCache()));
+        return result;
+    }
+
+    private Map<String, Object> cacheStats(Cache<?, ?> cache) {
+        CacheStats stats = cache.stats();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("size", cache.estimatedSize());
+        result.put("hitCount", stats.hitCount());
+        result.put("missCount", stats.missCount());
+        result.put("hitRate", stats.hitRate());
+        result.put("evictionCount", stats.evictionCount());
+        return result;
+    }
+}
@@ -0,0 +1,24 @@
+package study.datajpa.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import study.datajpa.dto.TeamSummaryDto;
+import study.datajpa.repository.TeamRepository;
+
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+public class TeamController {
+
+    private final TeamRepository teamRepository;
+
+    /**
+     * 팀별 회원수. Team.memberCount를 읽기 때문에 회원 테이블을 조회하지 않는다
+     */
+    @GetMapping("/teams/summary")
+    public List<TeamSummaryDto> summary() {
+        return teamRepository.findTeamSummaries();
+    }
+}
@@ -0,0 +1,21 @@
+package study.datajpa.dto;
+
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * 키셋 페이징 결과. 다음 페이지 조회시 nextCursor를 그대로 넘기면 된다.
+ */
+@Getter
+public class CursorPage<T> {
+    private final List<T> content;
+    private final String nextCursor;
+    private final boolean hasNext;
+
+    public CursorPage(List<T> content, String nextCursor) {
+        this.content = content;
+        this.nextCursor = nextCursor;
+        this.hasNext = nextCursor != null;
+    }
+}
@@ -0,0 +1,36 @@
+package study.datajpa.dto;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.List;
+
+@Getter
+@ToString
+public class ImportResult {
+    private final long rows; // 등록한 건수
+    private final long rejectedRows; // 형식이 맞지 않아 건너뛴 건수
+    private final List<RejectedRow> rejected; // 건너뛴 줄. 앞에서부터 study.import.max-reported-rejections 건까지
+    private final long elapsedMillis;
+    private final long rowsPerSecond;
+
+    public ImportResult(long rows, long rejectedRows, List<RejectedRow> rejected, long elapsedMillis) {
+        this.rows = rows;
+        this.rejectedRows = rejectedRows;
+        this.rejected = rejected;
+        this.elapsedMillis = elapsedMillis;
+        this.rowsPerSecond = elapsedMillis == 0 ? rows : rows * 1000 / elapsedMillis;
+    }
+
+    @Getter
+    @ToString
+    public static class RejectedRow {
+        private final long line; // 1부터 시작하는 줄 번호
+        private final String reason;
+
+        public RejectedRow(long line, String reason) {
+            this.line = line;
+            this.reason = reason;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package study.datajpa.dto;
+
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * 키셋(seek) 페이징용 커서. 마지막으로 조회한 (username, id)를 담는다.
+ * 클라이언트에는 내부 구조를 모르도록 base64 문자열로 인코딩해 전달한다.
+ */
+@Getter
+public class MemberCursor {
+    private static final char SEPARATOR = ':';
+
+    private final String username;
+    private final Long id;
+
+    public MemberCursor(String username, Long id) {
+        this.username = username;
+        this.id = id;
+    }
+
+    public String encode() {
+        if (username == null) {
+            throw new IllegalStateException("username이 없는 회원은 커서로 만들수 없습니다. id=" + id);
+        }
+        String raw = id + String.valueOf(SEPARATOR) + username;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 형식이 맞지 않으면 IllegalArgumentException
+     */
+    public static MemberCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int idx = raw.indexOf(SEPARATOR); // username에 ':'가 있을수 있으므로 첫번째 구분자 기준으로 자른다
+            return new MemberCursor(raw.substring(idx + 1), Long.valueOf(raw.substring(0, idx)));
+        } catch (IllegalArgumentException | StringIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("잘못된 커서값 입니다. cursor=" + token, e);
+        }
+    }
+}
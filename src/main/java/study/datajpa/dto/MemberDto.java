@@ -16,6 +16,7 @@ public class MemberDto {
         this.teamName = teamName;
     }
 
+    // 팀 이름까지 채우려면 팀을 지연로딩 해야하므로 목록 조회에는 findMemberDtoPage를 사용한다
     public MemberDto(Member member) {
         id = member.getId();
         username = member.getUsername();
@@ -0,0 +1,24 @@
+package study.datajpa.dto;
+
+import lombok.Data;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDateTime;
+
+/**
+ * 회원 검색 조건. null인 조건은 적용하지 않는다
+ * ex) /members/search?usernamePrefix=member&ageGoe=10&ageLoe=20&teamName=teamA&createdFrom=2020-01-01T00:00:00
+ */
+@Data
+public class MemberSearchCondition {
+    private String usernamePrefix;
+    private Integer ageGoe;
+    private Integer ageLoe;
+    private String teamName;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime createdFrom; // 포함
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime createdTo; // 미포함
+}
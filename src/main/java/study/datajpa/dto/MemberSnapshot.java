@@ -0,0 +1,33 @@
+package study.datajpa.dto;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+/**
+ * 캐시에 보관하는 회원 조회 모델. 엔티티는 영속성 컨텍스트에 묶여 있어 스레드끼리 공유할수 없으므로 값만 복사해둔다
+ */
+@Getter
+@ToString
+public class MemberSnapshot {
+    private final Long id;
+    private final String username;
+    private final int age;
+    private final String teamName;
+    private final Long version;
+    private final LocalDateTime lastModifiedDate;
+
+    public MemberSnapshot(Long id, String username, int age, String teamName, Long version, LocalDateTime lastModifiedDate) {
+        this.id = id;
+        this.username = username;
+        this.age = age;
+        this.teamName = teamName;
+        this.version = version;
+        this.lastModifiedDate = lastModifiedDate;
+    }
+
+    public VersionStamp toVersionStamp() {
+        return new VersionStamp(version, lastModifiedDate);
+    }
+}
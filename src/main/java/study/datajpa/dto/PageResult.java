@@ -0,0 +1,31 @@
+package study.datajpa.dto;
+
+import lombok.Getter;
+import org.springframework.data.domain.Slice;
+import study.datajpa.repository.support.TotalCountStrategy;
+
+import java.util.List;
+
+/**
+ * 페이징 응답. totalElements는 사용한 전략에 따라 정확한 값, 캐시된 값, 추정치 이거나 null(HAS_NEXT) 이다.
+ */
+@Getter
+public class PageResult<T> {
+    private final List<T> content;
+    private final int number;
+    private final int size;
+    private final boolean hasNext;
+    private final Long totalElements;
+    private final Long totalPages;
+    private final TotalCountStrategy totalStrategy;
+
+    public PageResult(Slice<T> slice, Long totalElements, TotalCountStrategy totalStrategy) {
+        this.content = slice.getContent();
+        this.number = slice.getNumber();
+        this.size = slice.getSize();
+        this.hasNext = slice.hasNext();
+        this.totalElements = totalElements;
+        this.totalPages = totalElements == null || size == 0 ? null : (totalElements + size - 1) / size;
+        this.totalStrategy = totalStrategy;
+    }
+}
@@ -0,0 +1,41 @@
+package study.datajpa.dto;
+
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * 조건부 조회(ETag, Last-Modified)용 버전 정보. 엔티티 전체 대신 이것만 조회해서 변경여부를 판단한다.
+ * 벌크 수정도 version을 올리므로 ETag는 version으로 만든다.
+ */
+@Getter
+public class VersionStamp {
+    private final String etag;
+    private final LocalDateTime lastModifiedDate;
+
+    // 회원 한명
+    public VersionStamp(Long version, LocalDateTime lastModifiedDate) {
+        this(String.valueOf(version), lastModifiedDate);
+    }
+
+    private VersionStamp(String version, LocalDateTime lastModifiedDate) {
+        this.etag = "\"" + version + "\"";
+        this.lastModifiedDate = lastModifiedDate;
+    }
+
+    // 테이블 전체. 테이블 변경 번호로 만든다 (TableVersions)
+    public static VersionStamp ofTables(String versions, LocalDateTime lastModifiedDate) {
+        return new VersionStamp(versions, lastModifiedDate);
+    }
+
+    /**
+     * 수정일이 없으면 -1. Last-Modified를 사용하지 않는다
+     */
+    public long lastModifiedMillis() {
+        if (lastModifiedDate == null) {
+            return -1;
+        }
+        return lastModifiedDate.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,31 @@
+package study.datajpa.entity;
+
+import org.springframework.data.domain.Persistable;
+
+import javax.persistence.MappedSuperclass;
+import javax.persistence.PostLoad;
+import javax.persistence.PostPersist;
+import javax.persistence.Transient;
+
+/**
+ * id를 직접 할당하는 엔티티의 공통 부모
+ * id가 항상 채워져 있어 save()가 merge(select 후 insert)로 동작하는 문제를 막기 위해
+ * 새로 만든 객체는 신규, 조회했거나 저장한 객체는 기존 엔티티로 판단한다.
+ */
+@MappedSuperclass
+public abstract class AssignedIdEntity<ID> extends BaseTimeEntity implements Persistable<ID> {
+
+    @Transient
+    private boolean isNew = true;
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.isNew = false;
+    }
+}
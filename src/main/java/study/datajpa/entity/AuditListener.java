@@ -0,0 +1,31 @@
+package study.datajpa.entity;
+
+import javax.persistence.PrePersist;
+import javax.persistence.PreUpdate;
+
+/**
+ * AuditingEntityListener 대신 사용하는 엔티티 리스너
+ * 스프링 부트가 하이버네이트에 스프링 빈 컨테이너를 연결해주기 때문에 생성자로 빈을 주입받을 수 있다.
+ */
+public class AuditListener {
+
+    private final AuditSnapshotProvider auditSnapshotProvider;
+
+    public AuditListener(AuditSnapshotProvider auditSnapshotProvider) {
+        this.auditSnapshotProvider = auditSnapshotProvider;
+    }
+
+    @PrePersist
+    public void prePersist(Object entity) {
+        if (entity instanceof Auditable) {
+            ((Auditable) entity).markCreated(auditSnapshotProvider.current());
+        }
+    }
+
+    @PreUpdate
+    public void preUpdate(Object entity) {
+        if (entity instanceof Auditable) {
+            ((Auditable) entity).markModified(auditSnapshotProvider.current());
+        }
+    }
+}
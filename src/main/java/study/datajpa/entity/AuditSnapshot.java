@@ -0,0 +1,19 @@
+package study.datajpa.entity;
+
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * 감사 정보(현재시각, 사용자). 트랜잭션마다 한번 만들어 flush 되는 모든 엔티티에 같은 값을 사용한다.
+ */
+@Getter
+public class AuditSnapshot {
+    private final LocalDateTime now;
+    private final String auditor;
+
+    public AuditSnapshot(LocalDateTime now, String auditor) {
+        this.now = now;
+        this.auditor = auditor;
+    }
+}
@@ -0,0 +1,64 @@
+package study.datajpa.entity;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+
+/**
+ * 트랜잭션 안에서는 처음 한번만 시각과 사용자를 구하고 트랜잭션이 끝날때까지 재사용한다.
+ * 엔티티마다 auditorAware, LocalDateTime.now()를 호출하면 대량 저장시 그만큼 비용이 든다.
+ * study.audit.per-transaction=false 이면 엔티티마다 새로 구한다.
+ */
+@Component
+public class AuditSnapshotProvider {
+
+    private final AuditorAware<String> auditorAware;
+    private final Clock clock = Clock.systemDefaultZone();
+    private final boolean perTransaction;
+
+    public AuditSnapshotProvider(AuditorAware<String> auditorAware,
+                                 @Value("${study.audit.per-transaction:true}") boolean perTransaction) {
+        this.auditorAware = auditorAware;
+        this.perTransaction = perTransaction;
+    }
+
+    public AuditSnapshot current() {
+        if (!perTransaction || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return create();
+        }
+
+        AuditSnapshot snapshot = (AuditSnapshot) TransactionSynchronizationManager.getResource(this);
+        if (snapshot == null) {
+            snapshot = create();
+            TransactionSynchronizationManager.bindResource(this, snapshot);
+            AuditSnapshot bound = snapshot;
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                // REQUIRES_NEW 로 시작한 트랜잭션은 자기 값을 새로 구하고, 끝나면 바깥 트랜잭션의 값으로 돌아온다
+                @Override
+                public void suspend() {
+                    TransactionSynchronizationManager.unbindResource(AuditSnapshotProvider.this);
+                }
+
+                @Override
+                public void resume() {
+                    TransactionSynchronizationManager.bindResource(AuditSnapshotProvider.this, bound);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(AuditSnapshotProvider.this);
+                }
+            });
+        }
+        return snapshot;
+    }
+
+    private AuditSnapshot create() {
+        return new AuditSnapshot(LocalDateTime.now(clock), auditorAware.getCurrentAuditor().orElse(null));
+    }
+}
@@ -0,0 +1,11 @@
+package study.datajpa.entity;
+
+/**
+ * AuditListener가 등록일, 수정일 등을 세팅하는 엔티티
+ * 리플렉션으로 필드를 찾지 않고 엔티티가 직접 값을 세팅한다.
+ */
+public interface Auditable {
+    void markCreated(AuditSnapshot snapshot);
+
+    void markModified(AuditSnapshot snapshot);
+}
@@ -1,23 +1,32 @@
 package study.datajpa.entity;
 
 import lombok.Getter;
-import org.springframework.data.annotation.CreatedBy;
-import org.springframework.data.annotation.LastModifiedBy;
-import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+import study.datajpa.cache.CacheInvalidationListener;
 
 import javax.persistence.Column;
 import javax.persistence.EntityListeners;
 import javax.persistence.MappedSuperclass;
 
 @Getter
-@EntityListeners(AuditingEntityListener.class)
+@EntityListeners(CacheInvalidationListener.class) // 다른 노드에 캐시 무효화 이벤트 전송
 @MappedSuperclass
 public abstract class BaseEntity extends BaseTimeEntity {
     //AuditorAware<String> 에서 값을꺼내 세팅
-    @CreatedBy
     @Column(updatable = false)
     private String createdBy;
 
-    @LastModifiedBy
     private String lastModifiedBy;
+
+    @Override
+    public void markCreated(AuditSnapshot snapshot) {
+        super.markCreated(snapshot);
+        createdBy = snapshot.getAuditor();
+        lastModifiedBy = snapshot.getAuditor();
+    }
+
+    @Override
+    public void markModified(AuditSnapshot snapshot) {
+        super.markModified(snapshot);
+        lastModifiedBy = snapshot.getAuditor();
+    }
 }
@@ -1,9 +1,6 @@
 package study.datajpa.entity;
 
 import lombok.Getter;
-import org.springframework.data.annotation.CreatedDate;
-import org.springframework.data.annotation.LastModifiedDate;
-import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
 import javax.persistence.Column;
 import javax.persistence.EntityListeners;
@@ -11,13 +8,22 @@ import javax.persistence.MappedSuperclass;
 import java.time.LocalDateTime;
 
 @Getter
-@EntityListeners(AuditingEntityListener.class)
+@EntityListeners(AuditListener.class)
 @MappedSuperclass
-public abstract class BaseTimeEntity {
-    @CreatedDate
+public abstract class BaseTimeEntity implements Auditable {
     @Column(updatable = false)
     private LocalDateTime createdDate;
 
-    @LastModifiedDate
     private LocalDateTime lastModifiedDate;
+
+    @Override
+    public void markCreated(AuditSnapshot snapshot) {
+        createdDate = snapshot.getNow();
+        lastModifiedDate = snapshot.getNow(); // 실무적으로 쿼리하기 편하게 값을 체운다.
+    }
+
+    @Override
+    public void markModified(AuditSnapshot snapshot) {
+        lastModifiedDate = snapshot.getNow();
+    }
 }
@@ -0,0 +1,40 @@
+package study.datajpa.entity;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+import java.time.LocalDateTime;
+
+/**
+ * 캐시 무효화 outbox 테이블. 엔티티를 수정한 트랜잭션에서 같이 저장하고 각 노드가 읽어가서 자기 캐시를 지운다.
+ * 저장, 조회는 OutboxInvalidationTransport가 jdbc로 한다. 테이블 생성용 매핑이다.
+ */
+@Entity
+@Table(name = "cache_invalidation_event", indexes = @Index(name = "idx_cache_invalidation_event_created_at", columnList = "createdAt"))
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class CacheInvalidationEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY) // 저장 순서대로 증가. 노드마다 마지막으로 읽은 id를 기억한다
+    private Long id;
+
+    @Column(nullable = false, length = 64)
+    private String nodeId; // 이벤트를 만든 노드. 자기가 만든 이벤트는 이미 지웠으므로 건너뛴다
+
+    @Column(nullable = false)
+    private String entityName;
+
+    private String entityId; // null이면 해당 엔티티 전체
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -2,14 +2,13 @@ package study.datajpa.entity;
 
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
-import org.springframework.data.domain.Persistable;
 
 import javax.persistence.Entity;
 import javax.persistence.Id;
 
 @Entity
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
-public class Item extends BaseTimeEntity implements Persistable<String> {
+public class Item extends AssignedIdEntity<String> {
     @Id
     private String id;
 
@@ -22,9 +21,4 @@ public class Item extends BaseTimeEntity implements Persistable<String> {
     public String getId() {
         return id;
     }
-
-    @Override
-    public boolean isNew() {
-        return super.getCreatedDate() == null;
-    }
 }
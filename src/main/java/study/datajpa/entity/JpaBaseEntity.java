@@ -1,29 +1,28 @@
 package study.datajpa.entity;
 
+import study.datajpa.cache.CacheInvalidationListener;
+
 import javax.persistence.Column;
+import javax.persistence.EntityListeners;
 import javax.persistence.MappedSuperclass;
-import javax.persistence.PrePersist;
-import javax.persistence.PreUpdate;
 import java.time.LocalDateTime;
 
+@EntityListeners({AuditListener.class, CacheInvalidationListener.class}) // 등록, 수정 직전에 markCreated, markModified 호출. 변경후 다른 노드에 캐시 무효화 이벤트 전송
 @MappedSuperclass // 상속 받은테이블에서 속성을 사용가능함
-public class JpaBaseEntity {
+public class JpaBaseEntity implements Auditable {
     @Column(updatable = false) // 수정불가능하도록
     private LocalDateTime createdDate;
     private LocalDateTime updatedDate;
 
-    @PrePersist // 영속화 하기전에(저장) 실행됨
-    public void prePersist() {
-        LocalDateTime now = LocalDateTime.now();
-        createdDate = now;
-        updatedDate = now; // 실무적으로 쿼리하기 편하게 값을 체운다.
+    @Override
+    public void markCreated(AuditSnapshot snapshot) {
+        createdDate = snapshot.getNow();
+        updatedDate = snapshot.getNow(); // 실무적으로 쿼리하기 편하게 값을 체운다.
     }
 
-    @PreUpdate // 영속화 하기전에 실행됨
-    public void preUpdate() {
-        LocalDateTime now = LocalDateTime.now();
-        createdDate = now;
-        updatedDate = now;
+    @Override
+    public void markModified(AuditSnapshot snapshot) {
+        updatedDate = snapshot.getNow();
     }
 
     public LocalDateTime getCreatedDate() {
@@ -1,8 +1,16 @@
 package study.datajpa.entity;
 
 import lombok.*;
+import org.hibernate.Hibernate;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import study.datajpa.cache.MemberCacheInvalidationListener;
+import study.datajpa.repository.support.TableVersionListener;
 
 import javax.persistence.*;
+import java.util.HashMap;
+import java.util.Map;
 
 import static javax.persistence.FetchType.LAZY;
 
@@ -11,17 +19,37 @@ import static javax.persistence.FetchType.LAZY;
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @ToString(of = {"id","username","age"})
 @NamedEntityGraph(name = "Member.all", attributeNodes = @NamedAttributeNode("team"))
+@EntityListeners({MemberCacheInvalidationListener.class, TableVersionListener.class, TeamMemberCountListener.class}) // 회원 조회 캐시 무효화, 목록 ETag, 팀 회원수
+@Table(indexes = { // 검색 조건별 인덱스 (MemberQueryRepository.search)
+        @Index(name = "idx_member_username", columnList = "username"),
+        @Index(name = "idx_member_age", columnList = "age"),
+        @Index(name = "idx_member_team_age", columnList = "team_id, age"),
+        @Index(name = "idx_member_created_date", columnList = "createdDate")
+})
 public class Member extends BaseEntity {
 
-    @Id @GeneratedValue
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "member_seq_generator")
+    @GenericGenerator(name = "member_seq_generator", strategy = "study.datajpa.entity.PooledSequenceGenerator",
+            parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "member_seq"))
     @Column(name = "member_id")
     private Long id;
+
+    @Version // 수정할때마다 증가. 다른 트랜잭션이 먼저 수정했으면 OptimisticLockException
+    @Setter(AccessLevel.NONE)
+    private Long version;
+
     private String username;
     private int age;
 
     @ManyToOne(fetch = LAZY)
     @JoinColumn(name = "team_id")
-    private Team team;
+    private Team team; // setTeam은 팀의 회원수를 바꾸지 않는다. 직접 사용하면 회원수도 맞춰야 한다 (MemberImportService)
+
+    // flush 할때 팀 회원수에 더할 값 (TeamMemberCountListener)
+    @Transient
+    @Getter(AccessLevel.NONE) @Setter(AccessLevel.NONE)
+    private Map<Team, Integer> teamCountDeltas = new HashMap<>();
 
     public Member(String username) {
         this.username = username;
@@ -41,8 +69,43 @@ public class Member extends BaseEntity {
         this.age = age;
     }
 
+    /**
+     * 팀의 회원수(memberCount)도 같이 바꾼다. flush 할때 회원 변경과 같은 트랜잭션에서 반영된다.
+     * 팀 엔티티를 수정하지 않고 update team set member_count = member_count + ? 로 반영하므로
+     * 같은 팀에 동시에 회원이 들어와도 팀의 @Version 충돌이 나지 않는다. 이미 읽은 팀 엔티티의 memberCount는 그대로다.
+     */
     public void changeTeam(Team team) {
+        if (this.team == team) {
+            return;
+        }
+        if (this.team != null) {
+            teamCountDeltas.merge(this.team, -1, Integer::sum);
+            // 이미 로딩된 컬랙션에서만 뺀다. 2차 캐시의 컬랙션은 auto_evict_collection_cache 가 지운다
+            if (Hibernate.isInitialized(this.team.getMembers())) {
+                this.team.getMembers().remove(this);
+            }
+        }
         this.team = team;
         team.getMembers().add(this);
+        teamCountDeltas.merge(team, 1, Integer::sum);
+    }
+
+    @PreRemove
+    private void decreaseTeamMemberCount() {
+        if (team != null) {
+            teamCountDeltas.merge(team, -1, Integer::sum);
+            if (Hibernate.isInitialized(team.getMembers())) {
+                team.getMembers().remove(this);
+            }
+        }
+    }
+
+    /**
+     * 아직 db에 반영하지 않은 팀별 회원수 변경. 꺼내면 비운다
+     */
+    Map<Team, Integer> drainTeamCountDeltas() {
+        Map<Team, Integer> deltas = teamCountDeltas;
+        teamCountDeltas = new HashMap<>();
+        return deltas;
     }
 }
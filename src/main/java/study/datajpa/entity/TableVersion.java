@@ -0,0 +1,28 @@
+package study.datajpa.entity;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import java.time.LocalDateTime;
+
+/**
+ * 테이블별 변경 번호. 테이블의 행이 바뀌는 트랜잭션마다 1 증가한다 (TableVersions)
+ * 목록 조회의 ETag를 테이블 전체를 읽지 않고 만들기 위해 사용한다. 저장, 조회는 jdbc로 한다. 테이블 생성용 매핑이다.
+ */
+@Entity
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class TableVersion {
+
+    @Id
+    @Column(length = 64)
+    private String tableName;
+
+    private long version;
+
+    private LocalDateTime lastModifiedDate;
+}
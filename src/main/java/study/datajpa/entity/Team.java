@@ -1,6 +1,13 @@
 package study.datajpa.entity;
 
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import study.datajpa.config.HibernateCacheConfig;
+import study.datajpa.repository.support.TableVersionListener;
 
 import javax.persistence.*;
 import java.util.ArrayList;
@@ -10,13 +17,31 @@ import java.util.List;
 @Getter @Setter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @ToString(of = {"id","name"})
+@Table(indexes = @Index(name = "idx_team_name", columnList = "name"))
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = HibernateCacheConfig.TEAM_REGION) // 조회가 대부분이라 2차 캐시에 보관
+@EntityListeners(TableVersionListener.class) // 회원 목록 ETag (팀 이름)
 public class Team extends JpaBaseEntity {
 
-    @Id @GeneratedValue
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "team_seq_generator")
+    @GenericGenerator(name = "team_seq_generator", strategy = "study.datajpa.entity.PooledSequenceGenerator",
+            parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "team_seq"))
     @Column(name = "team_id")
     private Long id;
+
+    @Version // 수정할때마다 증가. 다른 트랜잭션이 먼저 수정했으면 OptimisticLockException
+    @Setter(AccessLevel.NONE)
+    private Long version;
+
     private String name;
 
+    // 회원수. members.size()는 컬랙션 전체를 로딩하므로 Member.changeTeam, 회원 삭제시 같이 관리한다
+    // 엔티티 값은 바꾸지 않고 TeamMemberCounts가 update로 더하고 뺀다. 그래서 회원수가 바뀌어도 version이 오르지 않는다
+    @Setter(AccessLevel.NONE)
+    @Column(updatable = false)
+    private int memberCount;
+
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = HibernateCacheConfig.TEAM_MEMBERS_REGION)
     @OneToMany(mappedBy = "team")
     private List<Member> members = new ArrayList<>();
 
@@ -0,0 +1,28 @@
+package study.datajpa.entity;
+
+import org.springframework.beans.factory.ObjectProvider;
+import study.datajpa.repository.support.TeamMemberCounts;
+
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+
+/**
+ * Member.changeTeam, 회원 삭제로 바뀐 팀 회원수를 flush 할때 db에 반영한다.
+ * TeamMemberCounts는 EntityManagerFactory가 필요해서 사용할때 꺼낸다
+ */
+public class TeamMemberCountListener {
+
+    private final ObjectProvider<TeamMemberCounts> teamMemberCounts;
+
+    public TeamMemberCountListener(ObjectProvider<TeamMemberCounts> teamMemberCounts) {
+        this.teamMemberCounts = teamMemberCounts;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void apply(Member member) {
+        member.drainTeamCountDeltas().forEach((team, delta) -> teamMemberCounts.getObject().add(team.getId(), delta));
+    }
+}
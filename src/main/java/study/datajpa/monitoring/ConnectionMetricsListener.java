@@ -0,0 +1,93 @@
+package study.datajpa.monitoring;
+
+import com.p6spy.engine.common.ConnectionInformation;
+import com.p6spy.engine.event.JdbcEventListener;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 커넥션 획득 대기시간, 보유시간을 요청 경로(/members/{id} 같은 매핑 패턴)와 커넥션을 꺼낸 진입점 메서드별로 기록한다.
+ * 진입점은 트랜잭션을 시작한 서비스 메서드, 트랜잭션 없이 호출했으면 레파지토리 메서드다. (EntryPointAspect)
+ * /actuator/metrics/jdbc.connection.hold?tag=endpoint:/members
+ * /actuator/metrics/jdbc.connection.acquire?tag=entrypoint:MemberQueryService.findMember
+ *
+ * open-in-view가 켜져있으면 응답(json 변환)이 끝날때까지 커넥션을 잡고 있어서 보유시간이 길어진다.
+ * 풀 크기가 같아도 보유시간이 짧을수록 동시에 처리할수 있는 요청이 많아진다.
+ * 풀 전체 지표(active, idle, pending)는 스프링 부트가 hikaricp.connections.* 로 등록한다.
+ */
+@Component
+public class ConnectionMetricsListener extends JdbcEventListener {
+
+    static final String HOLD_METRIC = "jdbc.connection.hold";
+    static final String ACQUIRE_METRIC = "jdbc.connection.acquire";
+    private static final String NONE = "none"; // 스케줄러 등 요청 밖, 진입점 밖에서 사용한 커넥션
+
+    private final MeterRegistry meterRegistry;
+    private final Map<ConnectionInformation, Acquired> acquired = new ConcurrentHashMap<>();
+
+    public ConnectionMetricsListener(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void onAfterGetConnection(ConnectionInformation connectionInformation, SQLException e) {
+        if (e != null) {
+            return;
+        }
+        Tags tags = Tags.of("endpoint", currentEndpoint(), "entrypoint", currentEntryPoint());
+        timer(ACQUIRE_METRIC, "커넥션 획득 대기 시간", tags)
+                .record(connectionInformation.getTimeToGetConnectionNs(), TimeUnit.NANOSECONDS);
+        acquired.put(connectionInformation, new Acquired(System.nanoTime(), tags));
+    }
+
+    @Override
+    public void onAfterConnectionClose(ConnectionInformation connectionInformation, SQLException e) {
+        Acquired start = acquired.remove(connectionInformation);
+        if (start == null) {
+            return;
+        }
+        timer(HOLD_METRIC, "커넥션 보유 시간", start.tags)
+                .record(System.nanoTime() - start.nanoTime, TimeUnit.NANOSECONDS);
+    }
+
+    private Timer timer(String name, String description, Tags tags) {
+        return Timer.builder(name)
+                .description(description)
+                .tags(tags)
+                .register(meterRegistry);
+    }
+
+    private static String currentEndpoint() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return NONE;
+        }
+        Object pattern = attributes.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        return pattern == null ? NONE : pattern.toString();
+    }
+
+    private static String currentEntryPoint() {
+        String method = EntryPointAspect.currentMethod();
+        return method == null ? NONE : method;
+    }
+
+    private static class Acquired {
+        private final long nanoTime;
+        private final Tags tags;
+
+        Acquired(long nanoTime, Tags tags) {
+            this.nanoTime = nanoTime;
+            this.tags = tags;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package study.datajpa.monitoring;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.repository.Repository;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 현재 스레드에서 트랜잭션을 시작한 진입점 메서드(MemberQueryService.findMember 형태)를 기록한다.
+ * ConnectionMetricsListener가 커넥션을 꺼낸 진입점을 지표에 남길때 사용한다.
+ *
+ * open-in-view가 꺼져있으면 커넥션은 트랜잭션을 시작할때 꺼내므로 레파지토리 호출보다 먼저다.
+ * 그래서 서비스, @Transactional, 레파지토리 중 가장 바깥쪽 메서드로 기록하고
+ * 트랜잭션 인터셉터보다 먼저 실행되도록 가장 높은 우선순위를 준다.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class EntryPointAspect {
+
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    private final Map<Class<?>, String> targetNames = new ConcurrentHashMap<>();
+
+    /**
+     * 실행중인 진입점 메서드가 없으면 null
+     */
+    public static String currentMethod() {
+        return CURRENT.get();
+    }
+
+    // 서비스, @Transactional 클래스/메서드, 스프링 데이터 jpa 레파지토리, @Repository 클래스
+    @Around("@within(org.springframework.stereotype.Service)"
+            + " || @within(org.springframework.transaction.annotation.Transactional)"
+            + " || @annotation(org.springframework.transaction.annotation.Transactional)"
+            + " || this(org.springframework.data.repository.Repository)"
+            + " || @within(org.springframework.stereotype.Repository)")
+    public Object trace(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (CURRENT.get() != null) {
+            return joinPoint.proceed();
+        }
+        CURRENT.set(targetName(joinPoint.getTarget()) + "." + joinPoint.getSignature().getName());
+        try {
+            return joinPoint.proceed();
+        } finally {
+            CURRENT.remove();
+        }
+    }
+
+    /**
+     * 스프링 데이터 jpa 레파지토리는 프록시라서 클래스 대신 우리가 만든 인터페이스 이름을 사용한다
+     */
+    private String targetName(Object target) {
+        return targetNames.computeIfAbsent(AopUtils.getTargetClass(target), targetClass -> {
+            for (Class<?> type : ClassUtils.getAllInterfacesForClassAsSet(targetClass)) {
+                if (Repository.class.isAssignableFrom(type) && !type.getName().startsWith("org.springframework")) {
+                    return type.getSimpleName();
+                }
+            }
+            return targetClass.getSimpleName();
+        });
+    }
+}
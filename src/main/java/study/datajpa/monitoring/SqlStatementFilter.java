@@ -0,0 +1,42 @@
+package study.datajpa.monitoring;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * 요청마다 실행된 sql 수를 세고 같은 select가 반복되면(N+1 의심) 경고 로그를 남긴다
+ */
+@Slf4j
+@Component
+public class SqlStatementFilter extends OncePerRequestFilter {
+
+    @Value("${study.sql.n-plus-one-threshold:5}")
+    private int nPlusOneThreshold;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        SqlStatementRecorder.start(request.getMethod() + " " + request.getRequestURI());
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            SqlStatementLog statementLog = SqlStatementRecorder.stop();
+            Map<String, Integer> repeated = statementLog.findRepeatedSelects(nPlusOneThreshold);
+            if (!repeated.isEmpty()) {
+                log.warn("N+1 suspected. request={}, statements={}, repeated={}",
+                        statementLog.getOwner(), statementLog.getCount(), repeated);
+            } else {
+                log.debug("request={}, statements={}", statementLog.getOwner(), statementLog.getCount());
+            }
+        }
+    }
+}
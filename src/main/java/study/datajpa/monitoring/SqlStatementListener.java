@@ -0,0 +1,20 @@
+package study.datajpa.monitoring;
+
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.JdbcEventListener;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+
+/**
+ * p6spy가 sql 실행후 호출한다. 빈으로 등록하면 p6spy-spring-boot-starter가 자동으로 연결해준다.
+ * 배치로 전송된 sql은 한번으로 센다.
+ */
+@Component
+public class SqlStatementListener extends JdbcEventListener {
+
+    @Override
+    public void onAfterAnyExecute(StatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+        SqlStatementRecorder.record(statementInformation.getSql());
+    }
+}
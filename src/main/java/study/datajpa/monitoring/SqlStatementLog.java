@@ -0,0 +1,75 @@
+package study.datajpa.monitoring;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * 하나의 요청(또는 테스트)에서 실행된 sql 목록
+ */
+public class SqlStatementLog {
+
+    private static final int MAX_KEPT_STATEMENTS = 1000;
+    private static final Pattern STRING_LITERAL = Pattern.compile("'[^']*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+\\b");
+
+    private final String owner;
+    private final List<String> statements = new ArrayList<>();
+    private int count;
+
+    public SqlStatementLog(String owner) {
+        this.owner = owner;
+    }
+
+    void add(String sql) {
+        count++;
+        if (statements.size() < MAX_KEPT_STATEMENTS) {
+            statements.add(sql);
+        }
+    }
+
+    public void reset() {
+        statements.clear();
+        count = 0;
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public List<String> getStatements() {
+        return Collections.unmodifiableList(statements);
+    }
+
+    /**
+     * 파라미터만 다르고 같은 select가 threshold 번 이상 실행된 sql과 실행횟수. N+1의 전형적인 모습이다.
+     */
+    public Map<String, Integer> findRepeatedSelects(int threshold) {
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        for (String sql : statements) {
+            String normalized = normalize(sql);
+            if (normalized.startsWith("select")) {
+                counts.merge(normalized, 1, Integer::sum);
+            }
+        }
+        counts.values().removeIf(c -> c < threshold);
+        return counts;
+    }
+
+    /**
+     * 공백, 대소문자, 리터럴 값을 정규화해 파라미터만 다른 sql을 같은 sql로 본다
+     */
+    static String normalize(String sql) {
+        String normalized = STRING_LITERAL.matcher(sql).replaceAll("?");
+        normalized = NUMBER_LITERAL.matcher(normalized).replaceAll("?");
+        return normalized.replaceAll("\\s+", " ").trim().toLowerCase(Locale.ROOT);
+    }
+}
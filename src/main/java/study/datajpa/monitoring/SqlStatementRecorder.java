@@ -0,0 +1,49 @@
+package study.datajpa.monitoring;
+
+/**
+ * 현재 스레드에서 실행되는 sql을 기록한다.
+ * 요청은 SqlStatementFilter가, 테스트는 SqlStatementExtension이 시작과 종료를 관리한다.
+ */
+public final class SqlStatementRecorder {
+
+    private static final ThreadLocal<SqlStatementLog> CURRENT = new ThreadLocal<>();
+
+    private SqlStatementRecorder() {
+    }
+
+    public static SqlStatementLog start(String owner) {
+        SqlStatementLog log = new SqlStatementLog(owner);
+        CURRENT.set(log);
+        return log;
+    }
+
+    /**
+     * 기록중이 아니면 null
+     */
+    public static SqlStatementLog current() {
+        return CURRENT.get();
+    }
+
+    public static SqlStatementLog stop() {
+        SqlStatementLog log = CURRENT.get();
+        CURRENT.remove();
+        return log;
+    }
+
+    /**
+     * 지금까지 기록한 sql을 비운다. 테스트에서 데이터 준비 쿼리를 제외할때 사용
+     */
+    public static void reset() {
+        SqlStatementLog log = CURRENT.get();
+        if (log != null) {
+            log.reset();
+        }
+    }
+
+    static void record(String sql) {
+        SqlStatementLog log = CURRENT.get();
+        if (log != null && sql != null) {
+            log.add(sql);
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package study.datajpa.repository;
+
+import java.util.List;
+
+/**
+ * id를 직접 할당하는 엔티티의 대량 등록. 모두 신규라고 보고 merge 없이 persist만 한다.
+ */
+public interface InsertOnlyRepository<T> {
+    <S extends T> List<S> saveAllNew(Iterable<S> entities);
+}
@@ -0,0 +1,48 @@
+package study.datajpa.repository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * saveAll은 건마다 isNew를 확인하고 신규가 아니면 merge(select)를 한다.
+ * 신규만 들어오는 경우 persist만 하고 jdbc batch_size 마다 flush 해서 insert를 모아 보낸다.
+ * flush한 엔티티는 준영속 상태로 만들어 영속성 컨텍스트가 커지지 않게 한다.
+ */
+public class InsertOnlyRepositoryImpl<T> implements InsertOnlyRepository<T> {
+
+    @PersistenceContext
+    private EntityManager em;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:1000}")
+    private int batchSize;
+
+    @Override
+    @Transactional
+    public <S extends T> List<S> saveAllNew(Iterable<S> entities) {
+        List<S> result = new ArrayList<>();
+        List<S> chunk = new ArrayList<>();
+        for (S entity : entities) {
+            em.persist(entity);
+            result.add(entity);
+            chunk.add(entity);
+            if (chunk.size() == batchSize) {
+                flushAndDetach(chunk);
+            }
+        }
+        flushAndDetach(chunk);
+        return result;
+    }
+
+    private <S> void flushAndDetach(List<S> chunk) {
+        em.flush();
+        for (S entity : chunk) {
+            em.detach(entity);
+        }
+        chunk.clear();
+    }
+}
@@ -0,0 +1,12 @@
+package study.datajpa.repository;
+
+import study.datajpa.entity.Item;
+
+import java.util.Collection;
+
+public interface ItemRepositoryCustom {
+    /**
+     * 없으면 등록하고 있으면 수정일만 갱신한다 (merge into). 반환값은 등록, 수정된 row 수
+     */
+    int upsertAll(Collection<Item> items);
+}
@@ -0,0 +1,50 @@
+package study.datajpa.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.entity.AuditSnapshotProvider;
+import study.datajpa.entity.Item;
+
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.Collection;
+
+/**
+ * 외부에서 id를 받아 들어오는 데이터는 신규인지 알수 없어 건마다 select 해야 한다.
+ * DB의 merge into로 존재여부 확인과 insert/update를 한번에 처리하고 jdbc batch로 보낸다.
+ * 영속성 컨텍스트를 거치지 않으므로 이미 조회한 Item에는 반영되지 않는다.
+ * 등록일, 수정일은 같은 트랜잭션에서 저장한 엔티티와 같은 시각을 사용한다 (AuditSnapshotProvider)
+ */
+@RequiredArgsConstructor
+public class ItemRepositoryImpl implements ItemRepositoryCustom {
+
+    private static final int BATCH_SIZE = 1000;
+    private static final String UPSERT_SQL =
+            "merge into item i" +
+            " using (select cast(? as varchar(255)) as id, cast(? as timestamp) as now from dual) s" +
+            " on (i.id = s.id)" +
+            " when matched then update set i.last_modified_date = s.now" +
+            " when not matched then insert (id, created_date, last_modified_date) values (s.id, s.now, s.now)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final AuditSnapshotProvider auditSnapshotProvider;
+
+    @Override
+    @Transactional
+    public int upsertAll(Collection<Item> items) {
+        Timestamp now = Timestamp.valueOf(auditSnapshotProvider.current().getNow());
+        int[][] results = jdbcTemplate.batchUpdate(UPSERT_SQL, items, BATCH_SIZE, (ps, item) -> {
+            ps.setString(1, item.getId());
+            ps.setTimestamp(2, now);
+        });
+
+        int rows = 0;
+        for (int[] batch : results) {
+            for (int count : batch) {
+                rows += count == Statement.SUCCESS_NO_INFO ? 1 : count; // 건수를 알려주지 않는 드라이버는 한건으로 본다
+            }
+        }
+        return rows;
+    }
+}
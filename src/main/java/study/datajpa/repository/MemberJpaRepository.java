@@ -64,7 +64,7 @@ public class MemberJpaRepository {
     }
 
     public int bulkAgePlus(int age) {
-        return em.createQuery("update Member m set m.age = m.age + 1 where m.age >= :age")
+        return em.createQuery("update Member m set m.age = m.age + 1, m.version = m.version + 1, m.lastModifiedDate = current_timestamp where m.age >= :age")
                 .setParameter("age",age)
                 .executeUpdate();
     }
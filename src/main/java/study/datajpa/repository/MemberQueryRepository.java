@@ -1,9 +1,17 @@
 package study.datajpa.repository;
 
+import org.springframework.data.domain.Pageable;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.dto.MemberSearchCondition;
 import study.datajpa.entity.Member;
 
 import java.util.List;
 
 public interface MemberQueryRepository {
     public List<Member> findAllMember();
+
+    /**
+     * 조건에 맞는 회원을 id 순으로 조회한다. 정렬은 무시하고 page, size만 사용한다
+     */
+    public List<MemberDto> search(MemberSearchCondition condition, Pageable pageable);
 }
@@ -1,20 +1,94 @@
 package study.datajpa.repository;
 
-import lombok.RequiredArgsConstructor;
+import com.querydsl.core.types.Projections;
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Repository;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.dto.MemberSearchCondition;
 import study.datajpa.entity.Member;
 
 import javax.persistence.EntityManager;
+import java.time.LocalDateTime;
 import java.util.List;
 
+import static study.datajpa.entity.QMember.member;
+import static study.datajpa.entity.QTeam.team;
+
 @Repository
-@RequiredArgsConstructor
 public class MemberQueryRepositoryImpl implements MemberQueryRepository {
-    private
-    final EntityManager em;
+    private final EntityManager em;
+    private final JPAQueryFactory queryFactory;
+
+    public MemberQueryRepositoryImpl(EntityManager em) {
+        this.em = em;
+        this.queryFactory = new JPAQueryFactory(em);
+    }
 
     @Override
     public List<Member> findAllMember() {
         return em.createQuery("select m from Member m").getResultList();
     }
+
+    /**
+     * 조건마다 사용할 인덱스를 Member, Team 의 @Table(indexes)로 만들어 두었다.
+     * 팀 이름 조건이 있으면 inner join 해서 팀 이름 인덱스로 팀을 먼저 찾고 (team_id, age) 인덱스로 회원을 찾는다.
+     * left join은 조인 순서가 member -> team 으로 고정되어 member 전체를 읽게 된다.
+     */
+    @Override
+    public List<MemberDto> search(MemberSearchCondition condition, Pageable pageable) {
+        JPAQuery<MemberDto> query = queryFactory
+                .select(Projections.constructor(MemberDto.class, member.id, member.username, team.name))
+                .from(member);
+
+        if (condition.getTeamName() != null) {
+            query.join(member.team, team);
+        } else {
+            query.leftJoin(member.team, team);
+        }
+
+        return query
+                .where(usernameStartsWith(condition.getUsernamePrefix()),
+                        ageGoe(condition.getAgeGoe()),
+                        ageLoe(condition.getAgeLoe()),
+                        teamNameEq(condition.getTeamName()),
+                        createdFrom(condition.getCreatedFrom()),
+                        createdTo(condition.getCreatedTo()))
+                .orderBy(member.id.asc())
+                .offset(pageable.getOffset())
+                .limit(pageable.getPageSize())
+                .fetch();
+    }
+
+    /**
+     * like 'prefix%' 는 파라미터로 바인딩되면 db에 따라 인덱스를 타지 못하므로 범위 조건으로 바꾼다
+     */
+    private BooleanExpression usernameStartsWith(String prefix) {
+        if (prefix == null || prefix.isEmpty()) {
+            return null;
+        }
+        return member.username.goe(prefix).and(member.username.lt(prefix + Character.MAX_VALUE));
+    }
+
+    private BooleanExpression ageGoe(Integer age) {
+        return age == null ? null : member.age.goe(age);
+    }
+
+    private BooleanExpression ageLoe(Integer age) {
+        return age == null ? null : member.age.loe(age);
+    }
+
+    private BooleanExpression teamNameEq(String teamName) {
+        return teamName == null ? null : team.name.eq(teamName);
+    }
+
+    private BooleanExpression createdFrom(LocalDateTime from) {
+        return from == null ? null : member.createdDate.goe(from);
+    }
+
+    private BooleanExpression createdTo(LocalDateTime to) {
+        return to == null ? null : member.createdDate.lt(to);
+    }
 }
@@ -6,6 +6,7 @@ import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.*;
 import org.springframework.data.repository.query.Param;
 import study.datajpa.dto.MemberDto;
+import study.datajpa.dto.MemberSnapshot;
 import study.datajpa.entity.Member;
 
 import javax.persistence.LockModeType;
@@ -29,11 +30,12 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
     @Query("select new study.datajpa.dto.MemberDto(m.id, m.username, t.name) from Member m join m.team t ")
     List<MemberDto> findMemberDto();
 
-    @Query("select m from Member m where m.username in :names") // in절로 조회
+    @Query("select m from Member m where m.username in :names") // in절로 조회. 건수가 많으면 findByManyNames
     List<Member> findByNames(@Param("names") Collection<String> names);
 
     List<Member> findListByUsername(String username); // 컬랙션
-    Member findMemberByUsername(String username); // 단건
+    // 단건. 엔티티가 필요없는 조회는 MemberReadCache.findByUsername (캐시된 조회 모델)
+    Member findMemberByUsername(String username);
     Optional<Member> findOptionalByUsername(String username); // 단건 Optional
 
     Page<Member> findByAge(int age, Pageable pageable);
@@ -46,10 +48,46 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
             countQuery = "select count(m.username) from Member m") // 카운트 쿼리가 복잡할 경우 카운트 쿼리 분리가능.
     Page<Member> findQueryByAge(int age, Pageable pageable);
 
+    /**
+     * 목록 화면용. 엔티티 대신 필요한 컬럼만 DTO로 조회해 스냅샷 생성, 팀 지연로딩(N+1)이 없다.
+     * 정렬은 Pageable의 sort를 그대로 사용한다. 팀 이름으로 정렬하려면 t.name을 넘긴다.
+     */
+    @Query(value = "select new study.datajpa.dto.MemberDto(m.id, m.username, t.name) from Member m left join m.team t",
+            countQuery = "select count(m) from Member m")
+    Page<MemberDto> findMemberDtoPage(Pageable pageable);
+
+    // count 쿼리 없이 조회. 전체 건수는 PagingTotals에서 설정된 전략으로 구한다
+    @Query("select new study.datajpa.dto.MemberDto(m.id, m.username, t.name) from Member m left join m.team t")
+    Slice<MemberDto> findMemberDtoSlice(Pageable pageable);
+
+    long countByAge(int age);
+
+    // 캐시용 조회 (MemberReadCache)
+    @Query("select new study.datajpa.dto.MemberSnapshot(m.id, m.username, m.age, t.name, m.version, m.lastModifiedDate)" +
+            " from Member m left join m.team t where m.id = :id")
+    Optional<MemberSnapshot> findSnapshotById(@Param("id") Long id);
+
+    @Query("select new study.datajpa.dto.MemberSnapshot(m.id, m.username, m.age, t.name, m.version, m.lastModifiedDate)" +
+            " from Member m left join m.team t where m.username = :username")
+    List<MemberSnapshot> findSnapshotByUsername(@Param("username") String username);
+
     @Modifying(clearAutomatically = true) // jpa executeUpdate 실행. clearAutomatically = true : 영속성 컨텍스트를 자동으로 초기화
-    @Query("update Member m set m.age = m.age + 1 where m.age >= :age")
+    @Query("update Member m set m.age = m.age + 1, m.version = m.version + 1, m.lastModifiedDate = current_timestamp where m.age >= :age")
     int bulkAgePlus(@Param("age") int age);
 
+    /**
+     * id 구간을 나눠서 벌크 수정할때 사용. 구간마다 트랜잭션을 나누면 한번에 잡는 락의 범위와 시간이 줄어든다
+     */
+    @Modifying
+    @Query("update Member m set m.age = m.age + 1, m.version = m.version + 1, m.lastModifiedDate = current_timestamp where m.age >= :age and m.id between :fromId and :toId")
+    int bulkAgePlusBetween(@Param("age") int age, @Param("fromId") Long fromId, @Param("toId") Long toId);
+
+    @Query("select min(m.id) from Member m")
+    Long findMinId();
+
+    @Query("select max(m.id) from Member m")
+    Long findMaxId();
+
     @Query("select m from Member m left join fetch m.team")
     List<Member> findMemberFetchJoin();
 
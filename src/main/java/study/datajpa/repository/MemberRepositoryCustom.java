@@ -1,9 +1,35 @@
 package study.datajpa.repository;
 
+import study.datajpa.dto.MemberCursor;
+import study.datajpa.dto.MemberDto;
 import study.datajpa.entity.Member;
+import study.datajpa.repository.support.BulkEvictionMode;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface MemberRepositoryCustom {
     List<Member> findMemberCustom();
+
+    /**
+     * username, id 순으로 정렬해 cursor 다음 데이터를 limit 건 조회한다. cursor가 null이면 처음부터 조회
+     */
+    List<MemberDto> findMemberDtoByCursor(MemberCursor cursor, int limit);
+
+    /**
+     * 전체 회원을 fetchSize 단위로 DB에서 읽어오면서 하나씩 넘겨준다. 트랜잭션 안에서 호출하고 사용후 반드시 close 해야한다.
+     * 엔티티가 아닌 컬럼만 조회하므로 영속성 컨텍스트가 커지지 않고 호출한 쪽의 영속성 컨텍스트도 건드리지 않는다.
+     */
+    Stream<MemberDto> streamMemberDto(int fetchSize);
+
+    /**
+     * bulkAgePlus와 같지만 영속성 컨텍스트 전체를 비우지 않고 수정 대상 회원만 준영속/새로고침 한다
+     */
+    int bulkAgePlusAndEvict(int age, BulkEvictionMode mode);
+
+    /**
+     * findByNames와 같지만 건수가 많으면 in 절을 나누거나 임시 테이블과 조인한다 (InListExecutor)
+     */
+    List<Member> findByManyNames(Collection<String> names);
 }
@@ -1,10 +1,33 @@
 package study.datajpa.repository;
 
 import lombok.RequiredArgsConstructor;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.hibernate.query.Query;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.dto.MemberCursor;
+import study.datajpa.dto.MemberDto;
 import study.datajpa.entity.Member;
+import study.datajpa.repository.support.BulkEvictionMode;
+import study.datajpa.repository.support.InListExecutor;
+import study.datajpa.repository.support.ManagedEntities;
 
 import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.Collection;
 import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * 인터페이스명 + Impl 네이밍을 한 경우
@@ -15,10 +38,145 @@ import java.util.List;
 public class MemberRepositoryImpl implements MemberRepositoryCustom {
 
     private final EntityManager em;
+    private final InListExecutor inListExecutor;
+    private final PlatformTransactionManager transactionManager;
 
     @Override
     public List<Member> findMemberCustom() {
         return em.createQuery("select m from Member m")
                 .getResultList();
     }
+
+    /**
+     * offset 페이징은 앞 페이지를 모두 읽고 버리기 때문에 뒤로 갈수록 느려진다.
+     * 마지막으로 읽은 (username, id) 보다 큰 데이터부터 읽으면 몇번째 페이지든 같은 비용으로 조회된다.
+     * jpql은 (m.username, m.id) > (?, ?) 같은 row value 비교를 지원하지 않아 풀어서 작성한다.
+     * username이 null인 회원은 비교결과가 항상 false이므로 커서 조회에 포함되지 않는다.
+     * 첫 페이지에서도 제외해야 null이 커서에 담기지 않는다.
+     */
+    @Override
+    public List<MemberDto> findMemberDtoByCursor(MemberCursor cursor, int limit) {
+        String select = "select new study.datajpa.dto.MemberDto(m.id, m.username, t.name) from Member m left join m.team t";
+        String orderBy = " order by m.username asc, m.id asc";
+
+        TypedQuery<MemberDto> query;
+        if (cursor == null) {
+            query = em.createQuery(select + " where m.username is not null" + orderBy, MemberDto.class);
+        } else {
+            query = em.createQuery(select
+                            + " where m.username > :username or (m.username = :username and m.id > :id)"
+                            + orderBy, MemberDto.class)
+                    .setParameter("username", cursor.getUsername())
+                    .setParameter("id", cursor.getId());
+        }
+
+        return query.setMaxResults(limit)
+                .getResultList();
+    }
+
+    /**
+     * getResultList는 결과를 모두 List에 담기 때문에 데이터가 많으면 힙이 터진다.
+     * ScrollableResults로 커서를 열어 fetchSize 만큼씩 가져오고,
+     * 엔티티 대신 컬럼만 조회해 영속성 컨텍스트에 쌓이지 않게 한다. (em.clear()는 호출한 쪽의 엔티티까지 준영속으로 만든다)
+     */
+    @Override
+    public Stream<MemberDto> streamMemberDto(int fetchSize) {
+        ScrollableResults results = em.createQuery("select m.id, m.username, t.name from Member m left join m.team t")
+                .unwrap(Query.class)
+                .setFetchSize(fetchSize)
+                .setCacheable(false)
+                .scroll(ScrollMode.FORWARD_ONLY);
+
+        Spliterator<MemberDto> spliterator = new Spliterators.AbstractSpliterator<MemberDto>(Long.MAX_VALUE, Spliterator.ORDERED) {
+            @Override
+            public boolean tryAdvance(Consumer<? super MemberDto> action) {
+                if (!results.next()) {
+                    return false;
+                }
+                action.accept(new MemberDto((Long) results.get(0), (String) results.get(1), (String) results.get(2)));
+                return true;
+            }
+        };
+
+        return StreamSupport.stream(spliterator, false)
+                .onClose(results::close);
+    }
+
+    /**
+     * 벌크 쿼리는 영속성 컨텍스트를 거치지 않기 때문에 이미 조회한 회원은 수정 전 값을 가지고 있다.
+     * 수정 조건에 해당하는 회원만 골라서 처리하고 팀 등 다른 엔티티는 그대로 둔다.
+     * 2차 캐시는 하이버네이트가 벌크 쿼리의 대상 테이블(member)과 연관된 영역만 무효화한다.
+     */
+    @Override
+    public int bulkAgePlusAndEvict(int age, BulkEvictionMode mode) {
+        em.flush(); // 메모리의 변경내용을 먼저 반영해야 수정 대상을 메모리 값으로 판단할수 있다
+        List<Member> affected = ManagedEntities.find(em, Member.class, member -> member.getAge() >= age);
+
+        int rows = em.createQuery("update Member m set m.age = m.age + 1, m.version = m.version + 1, m.lastModifiedDate = current_timestamp where m.age >= :age")
+                .setParameter("age", age)
+                .executeUpdate();
+
+        ManagedEntities.evict(em, affected, mode);
+        return rows;
+    }
+
+    /**
+     * findByNames는 전체를 in 절 하나로 조회한다.
+     * 건수가 많으면 나눠서 조회하고, 임시 테이블 기준 건수를 넘으면 이름을 임시 테이블에 넣고 조인한다.
+     * 읽기 전용 트랜잭션이어야 InListExecutor가 나눈 조회를 동시에 실행한다. (쓰기 트랜잭션 안에서 호출하면 차례로 실행)
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<Member> findByManyNames(Collection<String> names) {
+        List<String> distinct = InListExecutor.distinctValues(names);
+        if (inListExecutor.exceedsTempTableThreshold(distinct.size())) {
+            return findByNamesJoinTempTableInWriteTransaction(distinct);
+        }
+        return inListExecutor.execute(distinct, chunk ->
+                em.createQuery("select m from Member m where m.username in :names", Member.class)
+                        .setParameter("names", chunk)
+                        .getResultList());
+    }
+
+    /**
+     * 임시 테이블에 값을 넣어야 하므로 읽기 전용 트랜잭션이면(레플리카로 라우팅될수 있다) 별도 쓰기 트랜잭션에서 실행한다.
+     * 이 경우 반환된 엔티티는 준영속 상태다.
+     */
+    private List<Member> findByNamesJoinTempTableInWriteTransaction(List<String> names) {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return findByNamesJoinTempTable(names);
+        }
+        TransactionTemplate writeTransaction = new TransactionTemplate(transactionManager);
+        writeTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        return writeTransaction.execute(status -> findByNamesJoinTempTable(names));
+    }
+
+    /**
+     * h2 local temporary table은 커넥션(세션)별로 따로 생기고, transactional 옵션이 없으면 생성할때 트랜잭션이 커밋된다.
+     * 커넥션은 풀에서 재사용되므로 이전에 넣은 값을 지우고 시작한다.
+     * 같은 커넥션을 써야 하므로 트랜잭션 안에서 실행해야 한다.
+     */
+    private List<Member> findByNamesJoinTempTable(List<String> names) {
+        em.unwrap(Session.class).doWork(connection -> {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("create local temporary table if not exists member_name_param"
+                        + " (username varchar(255) primary key) transactional");
+                statement.execute("delete from member_name_param");
+            }
+            try (PreparedStatement insert = connection.prepareStatement("insert into member_name_param (username) values (?)")) {
+                int count = 0;
+                for (String name : names) {
+                    insert.setString(1, name);
+                    insert.addBatch();
+                    if (++count % inListExecutor.getChunkSize() == 0) {
+                        insert.executeBatch();
+                    }
+                }
+                insert.executeBatch();
+            }
+        });
+
+        return em.createNativeQuery("select m.* from member m join member_name_param p on p.username = m.username", Member.class)
+                .getResultList();
+    }
 }
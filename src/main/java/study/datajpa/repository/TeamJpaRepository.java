@@ -1,6 +1,8 @@
 package study.datajpa.repository;
 
+import org.hibernate.annotations.QueryHints;
 import org.springframework.stereotype.Repository;
+import study.datajpa.config.HibernateCacheConfig;
 import study.datajpa.entity.Team;
 
 import javax.persistence.EntityManager;
@@ -18,8 +20,13 @@ public class TeamJpaRepository {
         em.remove(team);
     }
 
+    /**
+     * 쿼리 캐시를 사용한다. team 테이블이 변경되면 하이버네이트가 자동으로 캐시를 무효화한다.
+     */
     public List<Team> findAll() {
         return em.createQuery("select t from Team t", Team.class)
+                .setHint(QueryHints.CACHEABLE, true)
+                .setHint(QueryHints.CACHE_REGION, HibernateCacheConfig.TEAM_QUERY_REGION)
                 .getResultList();
     }
 
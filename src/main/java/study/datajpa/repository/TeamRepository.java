@@ -1,7 +1,44 @@
 package study.datajpa.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import study.datajpa.config.HibernateCacheConfig;
+import study.datajpa.dto.TeamSummaryDto;
 import study.datajpa.entity.Team;
 
+import javax.persistence.QueryHint;
+import java.util.Collection;
+import java.util.List;
+
 public interface TeamRepository extends JpaRepository<Team, Long> {
+
+    @QueryHints({
+            @QueryHint(name = org.hibernate.annotations.QueryHints.CACHEABLE, value = "true"),
+            @QueryHint(name = org.hibernate.annotations.QueryHints.CACHE_REGION, value = HibernateCacheConfig.TEAM_QUERY_REGION)
+    })
+    Team findByName(String name);
+
+    // member 테이블을 읽지 않고 팀 회원수를 조회한다
+    @Query("select new study.datajpa.dto.TeamSummaryDto(t.id, t.name, t.memberCount) from Team t order by t.name")
+    List<TeamSummaryDto> findTeamSummaries();
+
+    // 회원수는 version을 올리지 않는다. 올리면 같은 팀을 수정(이름 변경 등)하는 트랜잭션이 충돌한다 (TeamMemberCounts)
+    @Modifying
+    @Query("update Team t set t.memberCount = t.memberCount + :delta where t.id = :id")
+    int increaseMemberCount(@Param("id") Long id, @Param("delta") int delta);
+
+    /**
+     * 저장된 회원수와 실제 회원수가 다른 팀. [팀 id, 저장된 회원수, 실제 회원수]
+     */
+    @Query("select t.id, t.memberCount, count(m) from Team t left join t.members m" +
+            " group by t.id, t.memberCount having t.memberCount <> count(m)")
+    List<Object[]> findMemberCountDrift();
+
+    @Modifying
+    @Query("update Team t set t.memberCount = (select count(m) from Member m where m.team.id = t.id)" +
+            " where t.id in :ids")
+    int recountMembers(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,11 @@
+package study.datajpa.repository.support;
+
+/**
+ * 벌크 수정후 영속성 컨텍스트에 남아있는 수정 대상 엔티티 처리 방법
+ */
+public enum BulkEvictionMode {
+    /** 준영속 상태로 만든다. 다시 조회하면 DB의 값을 읽는다 */
+    DETACH,
+    /** 영속 상태를 유지하고 DB의 값으로 다시 읽어온다. 대상 건수만큼 select가 실행된다 */
+    REFRESH
+}
@@ -0,0 +1,140 @@
+package study.datajpa.repository.support;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 큰 in 절 조회를 chunk-size 단위로 나눠 실행하고 결과를 합친다.
+ * in 절 파라미터가 너무 많으면 드라이버 제한(oracle 1000개 등)에 걸리고, 건수마다 sql이 달라져 쿼리 플랜 캐시가 가득찬다.
+ * 파라미터 개수는 하이버네이트 in_clause_parameter_padding 설정으로 2의 제곱수로 맞춘다 (3개 -> 4개, 5개 -> 8개)
+ * chunk-size도 2의 제곱수로 두면 만들어지는 sql은 log2(chunk-size) 가지를 넘지 않는다.
+ *
+ * parallelism이 2 이상이면 나눈 조회를 동시에 실행한다.
+ * 각 조회는 별도 스레드의 별도 트랜잭션(영속성 컨텍스트)에서 실행되므로 반환된 엔티티는 준영속 상태다. 지연로딩이 필요하면 fetch join 해야한다.
+ * 별도 트랜잭션은 호출한 트랜잭션이 아직 커밋하지 않은 변경을 보지 못하므로 쓰기 트랜잭션 안에서는 나눠서 차례로 실행한다.
+ * 호출한 쪽도 커넥션을 하나 잡고 있으므로 동시 실행수는 풀 크기 - 1 을 넘지 않는다.
+ */
+@Component
+public class InListExecutor {
+
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService executor;
+    private final int chunkSize;
+    private final int tempTableThreshold;
+
+    public InListExecutor(PlatformTransactionManager transactionManager,
+                          @Value("${study.in-list.chunk-size:512}") int chunkSize,
+                          @Value("${study.in-list.parallelism:1}") int parallelism,
+                          @Value("${study.in-list.temp-table-threshold:10000}") int tempTableThreshold,
+                          @Value("${spring.datasource.hikari.maximum-pool-size:10}") int poolSize) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.transactionTemplate.setReadOnly(true);
+        int threads = Math.min(parallelism, poolSize - 1);
+        this.executor = threads > 1 ? Executors.newFixedThreadPool(threads) : null;
+        this.chunkSize = chunkSize;
+        this.tempTableThreshold = tempTableThreshold;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * 중복, null을 제거한 값. in 절에서 null은 어떤 값과도 일치하지 않는다
+     */
+    public static <K> List<K> distinctValues(Collection<K> values) {
+        return new ArrayList<>(values.stream()
+                .filter(Objects::nonNull)
+                .collect(Collectors.toCollection(LinkedHashSet::new)));
+    }
+
+    /**
+     * 이 건수를 넘으면 in 절 대신 임시 테이블과 조인하는게 낫다
+     */
+    public boolean exceedsTempTableThreshold(int size) {
+        return size > tempTableThreshold;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * @param query 나눠진 값 목록으로 in 절 조회를 실행한다
+     */
+    public <K, R> List<R> execute(Collection<K> values, Function<List<K>, List<R>> query) {
+        List<K> distinct = distinctValues(values);
+        if (distinct.isEmpty()) {
+            return new ArrayList<>();
+        }
+        if (distinct.size() <= chunkSize) {
+            return query.apply(distinct);
+        }
+
+        List<List<K>> chunks = new ArrayList<>();
+        for (int from = 0; from < distinct.size(); from += chunkSize) {
+            chunks.add(distinct.subList(from, Math.min(from + chunkSize, distinct.size())));
+        }
+
+        if (executor == null || isReadWriteTransactionActive()) {
+            List<R> result = new ArrayList<>();
+            for (List<K> chunk : chunks) {
+                result.addAll(query.apply(chunk));
+            }
+            return result;
+        }
+        return executeParallel(chunks, query);
+    }
+
+    private static boolean isReadWriteTransactionActive() {
+        return TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+    }
+
+    private <K, R> List<R> executeParallel(List<List<K>> chunks, Function<List<K>, List<R>> query) {
+        List<Future<List<R>>> futures = new ArrayList<>();
+        for (List<K> chunk : chunks) {
+            futures.add(executor.submit(() -> transactionTemplate.execute(status -> query.apply(chunk))));
+        }
+
+        List<R> result = new ArrayList<>();
+        try {
+            for (Future<List<R>> future : futures) {
+                result.addAll(future.get());
+            }
+        } catch (ExecutionException e) {
+            futures.forEach(future -> future.cancel(true));
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException("in 절 조회에 실패했습니다.", cause);
+        } catch (InterruptedException e) {
+            futures.forEach(future -> future.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("in 절 조회중 인터럽트 되었습니다.", e);
+        }
+        return result;
+    }
+}
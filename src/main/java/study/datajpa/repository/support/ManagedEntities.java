@@ -0,0 +1,44 @@
+package study.datajpa.repository.support;
+
+import org.hibernate.engine.spi.EntityEntry;
+import org.hibernate.engine.spi.SessionImplementor;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * 영속성 컨텍스트가 관리중인 엔티티를 찾아 일부만 준영속/새로고침 한다.
+ * clearAutomatically = true 는 관련없는 엔티티까지 모두 비우기 때문에 이후 다시 조회해야 한다.
+ */
+public final class ManagedEntities {
+
+    private ManagedEntities() {
+    }
+
+    public static <T> List<T> find(EntityManager em, Class<T> type, Predicate<T> condition) {
+        List<T> result = new ArrayList<>();
+        Map.Entry<Object, EntityEntry>[] entries = em.unwrap(SessionImplementor.class)
+                .getPersistenceContext()
+                .reentrantSafeEntityEntries();
+        for (Map.Entry<Object, EntityEntry> entry : entries) {
+            Object entity = entry.getKey();
+            if (type.isInstance(entity) && condition.test(type.cast(entity))) {
+                result.add(type.cast(entity));
+            }
+        }
+        return result;
+    }
+
+    public static void evict(EntityManager em, List<?> entities, BulkEvictionMode mode) {
+        for (Object entity : entities) {
+            if (mode == BulkEvictionMode.REFRESH) {
+                em.refresh(entity);
+            } else {
+                em.detach(entity);
+            }
+        }
+    }
+}
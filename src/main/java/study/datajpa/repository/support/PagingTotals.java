@@ -0,0 +1,78 @@
+package study.datajpa.repository.support;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+import study.datajpa.dto.PageResult;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Page 조회의 count 쿼리를 설정된 전략에 따라 실행하거나 생략한다.
+ * 본문은 항상 Slice(size + 1)로 조회해 다음 페이지 여부는 count 없이 판단한다.
+ */
+@Component
+@RequiredArgsConstructor
+public class PagingTotals {
+
+    private final PagingTotalsProperties properties;
+    private final TableStatistics tableStatistics;
+    private final Map<String, CachedTotal> cachedTotals = new ConcurrentHashMap<>();
+
+    /**
+     * @param name      설정에서 전략을 찾을 조회명
+     * @param predicate 조회조건. 캐시 키로 사용하고 조건이 없으면 null
+     * @param table     APPROXIMATE 전략에서 통계를 조회할 테이블명
+     */
+    public <T> PageResult<T> page(String name, Object predicate, String table, Pageable pageable,
+                                  Function<Pageable, Slice<T>> content, LongSupplier count) {
+        TotalCountStrategy strategy = properties.strategyFor(name);
+        Slice<T> slice = content.apply(pageable);
+
+        if (strategy == TotalCountStrategy.HAS_NEXT) {
+            return new PageResult<>(slice, null, strategy);
+        }
+        // 첫 페이지에 다음 페이지가 없으면 조회 건수가 곧 전체 건수다
+        if (slice.isFirst() && !slice.hasNext()) {
+            return new PageResult<>(slice, (long) slice.getNumberOfElements(), strategy);
+        }
+
+        if (strategy == TotalCountStrategy.APPROXIMATE && predicate == null) {
+            Long estimate = tableStatistics.estimateRowCount(table);
+            if (estimate != null) {
+                // 추정치가 실제 조회된 위치보다 작으면 최소한 현재까지 읽은 건수로 보정한다
+                long seen = pageable.getOffset() + slice.getNumberOfElements() + (slice.hasNext() ? 1 : 0);
+                return new PageResult<>(slice, Math.max(estimate, seen), strategy);
+            }
+        }
+        if (strategy == TotalCountStrategy.CACHED || strategy == TotalCountStrategy.APPROXIMATE) {
+            return new PageResult<>(slice, cachedCount(name + ":" + predicate, count), strategy);
+        }
+        return new PageResult<>(slice, count.getAsLong(), TotalCountStrategy.EXACT);
+    }
+
+    private long cachedCount(String key, LongSupplier count) {
+        long now = System.currentTimeMillis();
+        CachedTotal cached = cachedTotals.get(key);
+        if (cached != null && cached.expiresAt > now) {
+            return cached.total;
+        }
+        long total = count.getAsLong();
+        cachedTotals.put(key, new CachedTotal(total, now + properties.getCacheTtlSeconds() * 1000));
+        return total;
+    }
+
+    private static class CachedTotal {
+        private final long total;
+        private final long expiresAt;
+
+        private CachedTotal(long total, long expiresAt) {
+            this.total = total;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package study.datajpa.repository.support;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * study.paging.totals.strategies.{조회명}: EXACT | CACHED | APPROXIMATE | HAS_NEXT
+ */
+@Getter @Setter
+@Component
+@ConfigurationProperties(prefix = "study.paging.totals")
+public class PagingTotalsProperties {
+    private TotalCountStrategy defaultStrategy = TotalCountStrategy.EXACT;
+    private Map<String, TotalCountStrategy> strategies = new HashMap<>();
+    private long cacheTtlSeconds = 60;
+
+    public TotalCountStrategy strategyFor(String name) {
+        return strategies.getOrDefault(name, defaultStrategy);
+    }
+}
@@ -0,0 +1,38 @@
+package study.datajpa.repository.support;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * DB가 관리하는 테이블 건수 추정치를 조회한다. count(*)와 달리 테이블을 읽지 않는다.
+ * 기본 쿼리는 h2 기준이고 다른 DB는 study.paging.totals.row-estimate-query 로 바꾼다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TableStatistics {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${study.paging.totals.row-estimate-query:select row_count_estimate from information_schema.tables where table_name = ?}")
+    private String rowEstimateQuery;
+
+    /**
+     * 추정치를 구할수 없으면 null
+     */
+    public Long estimateRowCount(String tableName) {
+        try {
+            List<Long> result = jdbcTemplate.queryForList(rowEstimateQuery, Long.class, tableName.toUpperCase());
+            return result.isEmpty() ? null : result.get(0);
+        } catch (DataAccessException e) {
+            log.warn("row count estimate failed. table={}", tableName, e);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package study.datajpa.repository.support;
+
+import org.hibernate.Hibernate;
+import org.springframework.beans.factory.ObjectProvider;
+
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+
+/**
+ * 엔티티가 등록, 수정, 삭제되면 테이블 변경 번호를 올린다 (Member, Team)
+ * 테이블 이름은 기본 네이밍 전략을 따른다고 보고 엔티티 이름을 소문자로 바꿔 사용한다
+ */
+public class TableVersionListener {
+
+    private final ObjectProvider<TableVersions> tableVersions;
+
+    public TableVersionListener(ObjectProvider<TableVersions> tableVersions) {
+        this.tableVersions = tableVersions;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void markChanged(Object entity) {
+        tableVersions.getObject().markChanged(Hibernate.getClass(entity).getSimpleName().toLowerCase());
+    }
+}
@@ -0,0 +1,140 @@
+package study.datajpa.repository.support;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import study.datajpa.dto.VersionStamp;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 테이블별 변경 번호(table_version). 목록 조회 ETag용
+ * - 증가: 엔티티 리스너(TableVersionListener), 벌크 수정(BulkUpdateInvalidationAspect)이 트랜잭션마다 한번 올린다
+ *   처음 올린 시점부터 커밋까지 해당 행이 잠기므로 같은 테이블을 바꾸는 트랜잭션끼리는 커밋 직전이 순서대로 진행된다
+ * - 조회: 기본키 조회라 가볍지만 cache-millis 동안 캐시한다. 다른 노드의 변경은 그만큼 늦게 보일수 있다
+ */
+@Component
+public class TableVersions {
+
+    public static final String MEMBER = "member";
+    public static final String TEAM = "team";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Cache<String, Version> versions;
+
+    public TableVersions(JdbcTemplate jdbcTemplate,
+                         @Value("${study.table-version.cache-millis:1000}") long cacheMillis) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.versions = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMillis(cacheMillis))
+                .build();
+    }
+
+    public void markChanged(String table) {
+        versions.invalidate(table);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            increase(table);
+            return;
+        }
+        if (currentChangedTables().add(table)) {
+            increase(table);
+        }
+    }
+
+    /**
+     * 테이블들의 변경 번호를 이어 붙여 ETag를 만든다. 수정일은 가장 최근 값
+     */
+    public VersionStamp stamp(String... tables) {
+        StringBuilder etag = new StringBuilder();
+        LocalDateTime lastModified = null;
+        for (String table : tables) {
+            Version version = versions.get(table, this::load);
+            etag.append(etag.length() == 0 ? "" : "-").append(version.version);
+            if (lastModified == null
+                    || (version.lastModified != null && version.lastModified.isAfter(lastModified))) {
+                lastModified = version.lastModified;
+            }
+        }
+        return VersionStamp.ofTables(etag.toString(), lastModified);
+    }
+
+    private Version load(String table) {
+        List<Version> result = jdbcTemplate.query(
+                "select version, last_modified_date from table_version where table_name = ?",
+                (rs, rowNum) -> {
+                    Timestamp lastModified = rs.getTimestamp("last_modified_date");
+                    return new Version(rs.getLong("version"), lastModified == null ? null : lastModified.toLocalDateTime());
+                },
+                table);
+        return result.isEmpty() ? new Version(0, null) : result.get(0);
+    }
+
+    private void increase(String table) {
+        if (update(table) > 0) {
+            return;
+        }
+        // 처음 바뀌는 테이블. 다른 트랜잭션이 먼저 넣었으면 다시 올린다
+        try {
+            jdbcTemplate.update("insert into table_version (table_name, version, last_modified_date)" +
+                    " values (?, 1, current_timestamp)", table);
+        } catch (DuplicateKeyException e) {
+            update(table);
+        }
+    }
+
+    private int update(String table) {
+        return jdbcTemplate.update("update table_version set version = version + 1, last_modified_date = current_timestamp" +
+                " where table_name = ?", table);
+    }
+
+    /**
+     * 현재 트랜잭션에서 이미 올린 테이블. 트랜잭션이 끝나면 캐시를 한번 더 비운다
+     */
+    @SuppressWarnings("unchecked")
+    private Set<String> currentChangedTables() {
+        Set<String> changed = (Set<String>) TransactionSynchronizationManager.getResource(this);
+        if (changed == null) {
+            Set<String> created = new HashSet<>();
+            TransactionSynchronizationManager.bindResource(this, created);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void suspend() {
+                    TransactionSynchronizationManager.unbindResource(TableVersions.this);
+                }
+
+                @Override
+                public void resume() {
+                    TransactionSynchronizationManager.bindResource(TableVersions.this, created);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(TableVersions.this);
+                    versions.invalidateAll(created);
+                }
+            });
+            changed = created;
+        }
+        return changed;
+    }
+
+    private static class Version {
+        private final long version;
+        private final LocalDateTime lastModified;
+
+        Version(long version, LocalDateTime lastModified) {
+            this.version = version;
+            this.lastModified = lastModified;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package study.datajpa.repository.support;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import study.datajpa.cache.InvalidationEvent;
+import study.datajpa.cache.InvalidationTransport;
+import study.datajpa.entity.Team;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * 팀 회원수(Team.memberCount)를 update 한번으로 더하고 뺀다 (TeamMemberCountListener)
+ * 팀 엔티티를 읽고 고쳐서 저장하면 같은 팀에 동시에 회원이 들어올때 @Version 충돌이 나지만
+ * update team set member_count = member_count + ? 는 행 잠금으로 차례로 반영된다.
+ * 하이버네이트를 거치지 않으므로 팀 2차 캐시는 지금, 트랜잭션이 끝날때 한번 더 지우고 다른 노드에도 알린다.
+ */
+@Component
+public class TeamMemberCounts {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+    private final ObjectProvider<InvalidationTransport> transport;
+
+    public TeamMemberCounts(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory,
+                            ObjectProvider<InvalidationTransport> transport) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManagerFactory = entityManagerFactory;
+        this.transport = transport;
+    }
+
+    public void add(Long teamId, int delta) {
+        if (delta == 0) {
+            return;
+        }
+        jdbcTemplate.update("update team set member_count = member_count + ? where team_id = ?", delta, teamId);
+        evict(teamId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            currentChangedTeams().add(teamId);
+        }
+        transport.ifAvailable(t -> t.publish(InvalidationEvent.of(Team.class, teamId)));
+    }
+
+    private void evict(Long teamId) {
+        entityManagerFactory.getCache().evict(Team.class, teamId);
+    }
+
+    /**
+     * 현재 트랜잭션에서 회원수를 바꾼 팀. 커밋 전에 다른 트랜잭션이 이전 값을 다시 캐시할수 있어서 끝날때 한번 더 지운다
+     */
+    @SuppressWarnings("unchecked")
+    private Set<Long> currentChangedTeams() {
+        Set<Long> changed = (Set<Long>) TransactionSynchronizationManager.getResource(this);
+        if (changed == null) {
+            Set<Long> created = new HashSet<>();
+            TransactionSynchronizationManager.bindResource(this, created);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void suspend() {
+                    TransactionSynchronizationManager.unbindResource(TeamMemberCounts.this);
+                }
+
+                @Override
+                public void resume() {
+                    TransactionSynchronizationManager.bindResource(TeamMemberCounts.this, created);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(TeamMemberCounts.this);
+                    created.forEach(TeamMemberCounts.this::evict);
+                }
+            });
+            changed = created;
+        }
+        return changed;
+    }
+}
@@ -0,0 +1,15 @@
+package study.datajpa.repository.support;
+
+/**
+ * 페이징 조회시 전체 건수를 구하는 방법
+ */
+public enum TotalCountStrategy {
+    /** 매번 count 쿼리를 실행한다 */
+    EXACT,
+    /** 조건별로 count 결과를 ttl 동안 재사용한다 */
+    CACHED,
+    /** DB 통계정보의 테이블 건수 추정치를 사용한다. 조건이 있는 조회는 CACHED로 동작한다 */
+    APPROXIMATE,
+    /** count 쿼리 없이 다음 페이지 존재 여부만 알려준다 (Slice) */
+    HAS_NEXT
+}
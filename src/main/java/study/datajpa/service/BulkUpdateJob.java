@@ -0,0 +1,99 @@
+package study.datajpa.service;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * id 구간으로 나눈 벌크 수정 작업의 진행상태
+ * 구간 단위로 커밋하기 때문에 실패해도 완료된 구간은 다시 실행하지 않고 이어서 실행할 수 있다.
+ */
+public class BulkUpdateJob {
+
+    @Getter
+    private final int age;
+    private final List<IdRange> ranges;
+    private final Set<IdRange> completed = ConcurrentHashMap.newKeySet();
+    private final AtomicLong updatedRows = new AtomicLong();
+    private volatile Exception lastFailure;
+
+    public BulkUpdateJob(int age, List<IdRange> ranges) {
+        this.age = age;
+        this.ranges = Collections.unmodifiableList(new ArrayList<>(ranges));
+    }
+
+    public List<IdRange> pendingRanges() {
+        List<IdRange> pending = new ArrayList<>();
+        for (IdRange range : ranges) {
+            if (!completed.contains(range)) {
+                pending.add(range);
+            }
+        }
+        return pending;
+    }
+
+    void complete(IdRange range, int rows) {
+        completed.add(range);
+        updatedRows.addAndGet(rows);
+    }
+
+    void fail(Exception e) {
+        lastFailure = e;
+    }
+
+    void clearFailure() {
+        lastFailure = null;
+    }
+
+    public int getTotalRanges() {
+        return ranges.size();
+    }
+
+    public int getCompletedRanges() {
+        return completed.size();
+    }
+
+    public long getUpdatedRows() {
+        return updatedRows.get();
+    }
+
+    public Exception getLastFailure() {
+        return lastFailure;
+    }
+
+    public boolean isCompleted() {
+        return completed.size() == ranges.size();
+    }
+
+    @Override
+    public String toString() {
+        return "BulkUpdateJob(age=" + age + ", ranges=" + completed.size() + "/" + ranges.size()
+                + ", updatedRows=" + updatedRows.get() + ")";
+    }
+
+    /**
+     * from ~ to (양끝 포함)
+     */
+    @Getter
+    @EqualsAndHashCode
+    public static class IdRange {
+        private final long from;
+        private final long to;
+
+        public IdRange(long from, long to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public String toString() {
+            return "[" + from + ", " + to + "]";
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package study.datajpa.service;
+
+import java.util.Locale;
+
+public enum ImportFormat {
+    CSV("text/csv"),
+    NDJSON("application/x-ndjson");
+
+    private final String contentType;
+
+    ImportFormat(String contentType) {
+        this.contentType = contentType;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public static ImportFormat fromContentType(String contentType) {
+        for (ImportFormat format : values()) {
+            if (contentType != null && contentType.toLowerCase(Locale.ROOT).startsWith(format.contentType)) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("지원하지 않는 형식입니다. contentType=" + contentType);
+    }
+
+    public static ImportFormat fromFileName(String fileName) {
+        String lower = fileName.toLowerCase(Locale.ROOT);
+        if (lower.endsWith(".csv")) {
+            return CSV;
+        }
+        if (lower.endsWith(".ndjson") || lower.endsWith(".jsonl")) {
+            return NDJSON;
+        }
+        throw new IllegalArgumentException("지원하지 않는 파일입니다. fileName=" + fileName);
+    }
+}
@@ -0,0 +1,22 @@
+package study.datajpa.service;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import study.datajpa.dto.ImportResult;
+
+/**
+ * 형식이 맞지 않는 줄이 study.import.max-rejected-rows 를 넘어서 대량 등록을 중단했다.
+ * 이미 커밋된 chunk는 남아있고 result에 중단할때까지의 결과가 들어있다
+ */
+@Getter
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class ImportRejectedException extends RuntimeException {
+
+    private final ImportResult result;
+
+    public ImportRejectedException(ImportResult result) {
+        super("too many rejected rows. " + result);
+        this.result = result;
+    }
+}
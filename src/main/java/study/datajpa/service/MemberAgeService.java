@@ -0,0 +1,39 @@
+package study.datajpa.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+/**
+ * 같은 회원을 동시에 수정하는 경우의 두가지 방법
+ */
+@Service
+@RequiredArgsConstructor
+public class MemberAgeService {
+
+    private final MemberRepository memberRepository;
+    private final OptimisticRetryExecutor optimisticRetryExecutor;
+
+    /**
+     * @Version으로 충돌을 감지하고 충돌하면 재시도
+     */
+    public void addAgeOptimistic(Long memberId, int delta) {
+        optimisticRetryExecutor.execute(status -> {
+            Member member = memberRepository.findById(memberId).get();
+            member.setAge(member.getAge() + delta);
+            return null;
+        });
+    }
+
+    /**
+     * select for update로 다른 트랜잭션이 끝날때까지 기다린다
+     */
+    @Transactional
+    public void addAgePessimistic(String username, int delta) {
+        for (Member member : memberRepository.findLockByUsername(username)) {
+            member.setAge(member.getAge() + delta);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package study.datajpa.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.service.BulkUpdateJob.IdRange;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * bulkAgePlus를 id 구간으로 나눠 실행한다.
+ * 테이블 전체를 한번에 update 하면 커밋할때까지 모든 대상 row에 락이 잡혀 다른 쓰기가 대기한다.
+ * 구간마다 별도 트랜잭션으로 커밋해서 한번에 잡는 락의 범위와 시간을 chunk-size 로 제한한다.
+ *
+ * 작업 시작 시점의 최대 id까지만 나누기 때문에 이후 등록된 회원은 대상이 아니다.
+ */
+@Slf4j
+@Service
+public class MemberBulkUpdateService {
+
+    private final MemberRepository memberRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService executor;
+    private final long chunkSize;
+
+    public MemberBulkUpdateService(MemberRepository memberRepository,
+                                   PlatformTransactionManager transactionManager,
+                                   @Value("${study.bulk-update.chunk-size:10000}") long chunkSize,
+                                   @Value("${study.bulk-update.parallelism:4}") int parallelism) {
+        this.memberRepository = memberRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // 호출한 쪽의 트랜잭션과 상관없이 구간마다 커밋한다
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.executor = Executors.newFixedThreadPool(parallelism);
+        this.chunkSize = chunkSize;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * 구간을 나누기만 하고 실행하지 않는다
+     */
+    public BulkUpdateJob prepareAgePlus(int age) {
+        Long minId = memberRepository.findMinId();
+        Long maxId = memberRepository.findMaxId();
+
+        List<IdRange> ranges = new ArrayList<>();
+        if (minId != null) {
+            for (long from = minId; from <= maxId; from += chunkSize) {
+                ranges.add(new IdRange(from, Math.min(from + chunkSize - 1, maxId)));
+            }
+        }
+        return new BulkUpdateJob(age, ranges);
+    }
+
+    public BulkUpdateJob bulkAgePlus(int age, boolean parallel) {
+        BulkUpdateJob job = prepareAgePlus(age);
+        run(job, parallel);
+        return job;
+    }
+
+    /**
+     * 완료되지 않은 구간만 실행한다. 실패하면 job.getLastFailure()에 원인이 남고
+     * 같은 job으로 다시 호출하면 실패한 구간부터 이어서 실행한다.
+     */
+    public void run(BulkUpdateJob job, boolean parallel) {
+        job.clearFailure();
+        if (parallel) {
+            runParallel(job);
+        } else {
+            for (IdRange range : job.pendingRanges()) {
+                try {
+                    runRange(job, range);
+                } catch (RuntimeException e) {
+                    fail(job, range, e);
+                    return;
+                }
+            }
+        }
+    }
+
+    private void runParallel(BulkUpdateJob job) {
+        List<IdRange> pending = job.pendingRanges();
+        List<Future<?>> futures = new ArrayList<>();
+        for (IdRange range : pending) {
+            futures.add(executor.submit(() -> runRange(job, range)));
+        }
+
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                futures.get(i).get();
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                fail(job, pending.get(i), cause instanceof Exception ? (Exception) cause : e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                fail(job, pending.get(i), e);
+                return;
+            }
+        }
+    }
+
+    private void runRange(BulkUpdateJob job, IdRange range) {
+        Integer rows = transactionTemplate.execute(status ->
+                memberRepository.bulkAgePlusBetween(job.getAge(), range.getFrom(), range.getTo()));
+        job.complete(range, rows);
+        log.info("bulk age plus range={} rows={} progress={}/{}",
+                range, rows, job.getCompletedRanges(), job.getTotalRanges());
+    }
+
+    private void fail(BulkUpdateJob job, IdRange range, Exception e) {
+        log.error("bulk age plus failed range={} {}", range, job, e);
+        job.fail(e);
+    }
+}
@@ -0,0 +1,52 @@
+package study.datajpa.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.repository.MemberRepository;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * 전체 회원을 한줄에 하나씩 json으로 내보낸다 (ndjson)
+ * 조회와 동시에 응답으로 흘려보내기 때문에 테이블 크기와 상관없이 메모리 사용량이 일정하다
+ */
+@Service
+@RequiredArgsConstructor
+public class MemberExportService {
+
+    private static final byte NEW_LINE = '\n';
+
+    private final MemberRepository memberRepository;
+    private final ObjectMapper objectMapper;
+
+    @Value("${study.export.fetch-size:500}")
+    private int fetchSize;
+
+    @Transactional(readOnly = true)
+    public long exportNdjson(OutputStream out) throws IOException {
+        ObjectWriter writer = objectMapper.writerFor(MemberDto.class);
+        long rows = 0;
+
+        try (Stream<MemberDto> stream = memberRepository.streamMemberDto(fetchSize)) {
+            Iterator<MemberDto> iterator = stream.iterator();
+            while (iterator.hasNext()) {
+                out.write(writer.writeValueAsBytes(iterator.next()));
+                out.write(NEW_LINE);
+
+                if (++rows % fetchSize == 0) {
+                    out.flush(); // 모아둔 만큼 클라이언트로 전송 (chunked)
+                }
+            }
+        }
+        out.flush();
+        return rows;
+    }
+}
@@ -0,0 +1,207 @@
+package study.datajpa.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.dto.ImportResult;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.repository.TeamRepository;
+
+import javax.persistence.EntityManager;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 회원 대량 등록
+ * - 한줄씩 읽어서 저장하기 때문에 파일 크기와 상관없이 메모리 사용량이 일정하다
+ * - hibernate.jdbc.batch_size 만큼 insert를 모아서 전송한다
+ * - chunkSize 마다 트랜잭션을 커밋한다. 트랜잭션 길이, 잠금, undo 양이 chunk 크기로 제한되고 실패해도 앞의 chunk는 남는다
+ *   (호출한 쪽에 트랜잭션이 있으면 그 트랜잭션에 포함되고 chunk 마다 flush, clear 만 한다)
+ * - 형식이 맞지 않는 줄은 건너뛰고 결과에 줄 번호와 이유를 담는다. max-rejected-rows 를 넘으면 중단한다 (400)
+ */
+@Slf4j
+@Service
+public class MemberImportService {
+
+    private final EntityManager em;
+    private final TeamRepository teamRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${study.import.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${study.import.max-rejected-rows:1000}")
+    private long maxRejectedRows;
+
+    @Value("${study.import.max-reported-rejections:100}")
+    private int maxReportedRejections;
+
+    public MemberImportService(EntityManager em, TeamRepository teamRepository, ObjectMapper objectMapper,
+                               PlatformTransactionManager transactionManager) {
+        this.em = em;
+        this.teamRepository = teamRepository;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public ImportResult importMembers(Path file) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            return importMembers(in, ImportFormat.fromFileName(file.getFileName().toString()));
+        }
+    }
+
+    /**
+     * csv : username,age,teamName (첫줄이 username으로 시작하면 헤더로 보고 건너뛴다)
+     * ndjson : {"username":"member1","age":10,"teamName":"teamA"}
+     */
+    public ImportResult importMembers(InputStream in, ImportFormat format) throws IOException {
+        long start = System.currentTimeMillis();
+        Map<String, Long> teamIds = new HashMap<>(); // 트랜잭션이 끝난 후에도 재사용할 수 있도록 엔티티가 아닌 id를 보관
+        Progress progress = new Progress();
+        List<MemberRow> chunk = new ArrayList<>();
+        long lineNumber = 0;
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.trim().isEmpty() || (format == ImportFormat.CSV && lineNumber == 1 && line.startsWith("username"))) {
+                continue;
+            }
+
+            try {
+                chunk.add(format == ImportFormat.CSV ? parseCsv(line) : parseNdjson(line));
+            } catch (IllegalArgumentException | IOException e) { // NumberFormatException, JsonProcessingException 포함
+                progress.reject(lineNumber, e.getMessage());
+                if (progress.rejectedRows > maxRejectedRows) {
+                    throw new ImportRejectedException(progress.toResult(start));
+                }
+            }
+
+            if (chunk.size() == chunkSize) {
+                importChunk(chunk, teamIds, progress);
+                log.info("member import progress rows={}", progress.rows);
+            }
+        }
+        importChunk(chunk, teamIds, progress);
+
+        ImportResult result = progress.toResult(start);
+        log.info("member import finished {}", result);
+        return result;
+    }
+
+    private void importChunk(List<MemberRow> chunk, Map<String, Long> teamIds, Progress progress) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        try {
+            transactionTemplate.execute(status -> {
+                Map<Long, Integer> addedMembers = new HashMap<>(); // 팀별로 추가된 회원수
+                for (MemberRow row : chunk) {
+                    em.persist(newMember(row, teamIds, addedMembers));
+                }
+                em.flush();
+                increaseMemberCounts(addedMembers);
+                if (!status.isNewTransaction()) {
+                    em.clear(); // 바깥 트랜잭션에 포함되면 영속성 컨텍스트가 계속 커지지 않게 비운다
+                }
+                return null;
+            });
+        } catch (RuntimeException e) {
+            teamIds.clear(); // 롤백된 chunk에서 만든 팀일수 있다
+            throw e;
+        }
+        progress.rows += chunk.size();
+        chunk.clear();
+    }
+
+    /**
+     * 팀 회원수를 팀마다 update 한번으로 올린다. 회원마다 팀 엔티티를 수정하는 것보다 sql이 적다
+     */
+    private void increaseMemberCounts(Map<Long, Integer> addedMembers) {
+        addedMembers.forEach(teamRepository::increaseMemberCount);
+    }
+
+    private MemberRow parseCsv(String line) {
+        String[] columns = line.split(",", -1);
+        if (columns.length < 2) {
+            throw new IllegalArgumentException("username,age 가 필요합니다");
+        }
+        String teamName = columns.length > 2 ? columns[2].trim() : "";
+        return new MemberRow(columns[0].trim(), Integer.parseInt(columns[1].trim()), teamName);
+    }
+
+    private MemberRow parseNdjson(String line) throws IOException {
+        JsonNode node = objectMapper.readTree(line);
+        JsonNode age = node.path("age");
+        int parsedAge = age.isMissingNode() || age.isNull() ? 0
+                : age.isNumber() ? age.intValue() : Integer.parseInt(age.asText().trim());
+        return new MemberRow(node.path("username").asText(null), parsedAge, node.path("teamName").asText(""));
+    }
+
+    private Member newMember(MemberRow row, Map<String, Long> teamIds, Map<Long, Integer> addedMembers) {
+        Member member = new Member(row.username, row.age);
+        if (!row.teamName.isEmpty()) {
+            // changeTeam은 team.members 컬랙션에 추가하기 때문에 대량 등록에서는 연관관계 주인만 세팅하고 회원수는 chunk 단위로 올린다
+            Long teamId = resolveTeamId(row.teamName, teamIds);
+            member.setTeam(em.getReference(Team.class, teamId));
+            addedMembers.merge(teamId, 1, Integer::sum);
+        }
+        return member;
+    }
+
+    private Long resolveTeamId(String teamName, Map<String, Long> teamIds) {
+        return teamIds.computeIfAbsent(teamName, name -> {
+            Team team = teamRepository.findByName(name);
+            if (team == null) {
+                team = new Team(name);
+                em.persist(team);
+            }
+            return team.getId();
+        });
+    }
+
+    private static class MemberRow {
+        private final String username;
+        private final int age;
+        private final String teamName;
+
+        MemberRow(String username, int age, String teamName) {
+            this.username = username;
+            this.age = age;
+            this.teamName = teamName;
+        }
+    }
+
+    private class Progress {
+        private long rows;
+        private long rejectedRows;
+        private final List<ImportResult.RejectedRow> rejected = new ArrayList<>();
+
+        void reject(long line, String reason) {
+            rejectedRows++;
+            if (rejected.size() < maxReportedRejections) {
+                rejected.add(new ImportResult.RejectedRow(line, reason));
+            }
+        }
+
+        ImportResult toResult(long start) {
+            return new ImportResult(rows, rejectedRows, rejected, System.currentTimeMillis() - start);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package study.datajpa.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.dto.PageResult;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.support.PagingTotals;
+
+/**
+ * 화면용 조회. open-in-view를 끄면 트랜잭션이 끝날때 커넥션을 반납하므로
+ * 필요한 값(지연로딩 포함)은 모두 여기서 읽어 DTO로 만들어 넘긴다. 컨트롤러는 엔티티를 받지 않는다.
+ */
+@Service
+@Transactional(readOnly = true)
+@RequiredArgsConstructor
+public class MemberQueryService {
+
+    private final MemberRepository memberRepository;
+    private final PagingTotals pagingTotals;
+
+    public MemberDto findMember(Long id) {
+        Member member = memberRepository.findById(id).get();
+        Team team = member.getTeam();
+        return new MemberDto(member.getId(), member.getUsername(), team == null ? null : team.getName());
+    }
+
+    /**
+     * 전체 건수는 study.paging.totals.strategies.members 설정에 따라 구한다
+     */
+    public PageResult<MemberDto> findMembers(Pageable pageable) {
+        return pagingTotals.page("members", null, "member", pageable,
+                memberRepository::findMemberDtoSlice, memberRepository::count);
+    }
+}
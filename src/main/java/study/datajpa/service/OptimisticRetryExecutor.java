@@ -0,0 +1,81 @@
+package study.datajpa.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.OptimisticLockException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 낙관적 락 충돌이 나면 트랜잭션을 처음부터 다시 실행한다.
+ * 비관적 락(select for update)은 충돌이 없어도 같은 row의 쓰기를 모두 줄세우지만
+ * 낙관적 락은 충돌이 난 경우에만 비용(재시도)이 든다. 충돌이 드문 경우에 유리하다.
+ *
+ * 재시도 간격은 지수적으로 늘리고 0 ~ 간격 사이에서 무작위로 골라(jitter) 충돌한 트랜잭션끼리 다시 부딪히지 않게 한다.
+ */
+@Slf4j
+@Component
+public class OptimisticRetryExecutor {
+
+    private final TransactionTemplate transactionTemplate;
+    private final int maxAttempts;
+    private final long initialBackoffMillis;
+    private final long maxBackoffMillis;
+
+    public OptimisticRetryExecutor(PlatformTransactionManager transactionManager,
+                                   @Value("${study.optimistic-retry.max-attempts:5}") int maxAttempts,
+                                   @Value("${study.optimistic-retry.initial-backoff-millis:10}") long initialBackoffMillis,
+                                   @Value("${study.optimistic-retry.max-backoff-millis:500}") long maxBackoffMillis) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // 재시도마다 새 트랜잭션(새 영속성 컨텍스트)에서 최신 데이터를 다시 읽어야 한다
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffMillis = initialBackoffMillis;
+        this.maxBackoffMillis = maxBackoffMillis;
+    }
+
+    public <T> T execute(TransactionCallback<T> action) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(action);
+            } catch (RuntimeException e) {
+                if (!isOptimisticLockFailure(e) || attempt >= maxAttempts) {
+                    throw e;
+                }
+                long backoff = backoffMillis(attempt);
+                log.debug("optimistic lock conflict. attempt={}, retry after {}ms", attempt, backoff);
+                sleep(backoff);
+            }
+        }
+    }
+
+    private long backoffMillis(int attempt) {
+        long exponential = initialBackoffMillis << Math.min(attempt - 1, 20);
+        long bound = Math.min(exponential, maxBackoffMillis);
+        return ThreadLocalRandom.current().nextLong(bound + 1);
+    }
+
+    private static boolean isOptimisticLockFailure(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof OptimisticLockingFailureException || cause instanceof OptimisticLockException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("재시도 대기중 인터럽트 되었습니다.", e);
+        }
+    }
+}
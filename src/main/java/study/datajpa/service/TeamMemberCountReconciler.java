@@ -0,0 +1,55 @@
+package study.datajpa.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.repository.TeamRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Team.memberCount가 실제 회원수와 맞는지 주기적으로 확인한다.
+ * 벌크 삭제, setTeam 직접 호출, 직접 실행한 sql 등은 회원수를 바꾸지 않기 때문에 어긋날수 있다.
+ * fix-drift가 true면 어긋난 팀만 다시 센다.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "study.team-member-count.reconcile-enabled", havingValue = "true", matchIfMissing = true)
+public class TeamMemberCountReconciler {
+
+    private final TeamRepository teamRepository;
+    private final boolean fixDrift;
+
+    public TeamMemberCountReconciler(TeamRepository teamRepository,
+                                     @Value("${study.team-member-count.fix-drift:true}") boolean fixDrift) {
+        this.teamRepository = teamRepository;
+        this.fixDrift = fixDrift;
+    }
+
+    /**
+     * @return 회원수가 어긋난 팀 수
+     */
+    @Transactional
+    @Scheduled(initialDelayString = "${study.team-member-count.reconcile-interval-millis:600000}",
+            fixedDelayString = "${study.team-member-count.reconcile-interval-millis:600000}")
+    public int reconcile() {
+        List<Object[]> drifts = teamRepository.findMemberCountDrift();
+        if (drifts.isEmpty()) {
+            return 0;
+        }
+
+        List<Long> teamIds = new ArrayList<>();
+        for (Object[] drift : drifts) {
+            log.warn("team member count drift. teamId={}, memberCount={}, actual={}", drift[0], drift[1], drift[2]);
+            teamIds.add((Long) drift[0]);
+        }
+        if (fixDrift) {
+            teamRepository.recountMembers(teamIds);
+        }
+        return drifts.size();
+    }
+}
@@ -0,0 +1,197 @@
+package study.datajpa.cache;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.DataJpaApplication;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.TeamRepository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 같은 h2 메모리 db를 사용하는 컨텍스트 두개를 노드 A, B로 띄운다.
+ * 주기적인 조회는 끄고 poll()을 직접 호출한다
+ */
+class CacheInvalidationBusTest {
+
+    static String url;
+    static ConfigurableApplicationContext nodeA;
+    static ConfigurableApplicationContext nodeB;
+
+    @BeforeAll
+    static void startNodes() {
+        url = "jdbc:h2:mem:invalidation-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1";
+        nodeA = startNode("nodeA", "create");
+        nodeB = startNode("nodeB", "none"); // 테이블은 A가 만든다
+    }
+
+    @AfterAll
+    static void stopNodes() {
+        nodeB.close();
+        nodeA.close();
+    }
+
+    @Test
+    public void 다른노드에서_수정하면_캐시가_무효화된다() throws Exception {
+        //given
+        Member member = nodeA.getBean(MemberRepository.class).save(new Member("bus1", 10));
+        MemberReadCache cacheB = nodeB.getBean(MemberReadCache.class);
+        assertEquals(cacheB.findById(member.getId()).get().getAge(), 10);
+
+        //when
+        inTransaction(nodeA, () -> nodeA.getBean(MemberRepository.class).findById(member.getId()).get().setAge(20));
+        int applied = nodeB.getBean(InvalidationPoller.class).poll();
+
+        //then
+        assertTrue(applied > 0);
+        assertEquals(cacheB.findById(member.getId()).get().getAge(), 20);
+        assertEquals(nodeA.getBean(InvalidationPoller.class).poll(), 0); // 자기가 보낸 이벤트는 건너뛴다
+    }
+
+    @Test
+    public void 다른노드에서_수정하면_2차캐시가_무효화된다() throws Exception {
+        //given
+        Team team = nodeA.getBean(TeamRepository.class).save(new Team("busTeam1"));
+        assertEquals(findTeamName(nodeB, team.getId()), "busTeam1"); // B의 2차 캐시에 저장
+
+        //when
+        inTransaction(nodeA, () -> nodeA.getBean(TeamRepository.class).findById(team.getId()).get().setName("busTeam2"));
+        nodeB.getBean(InvalidationPoller.class).poll();
+
+        //then
+        assertEquals(findTeamName(nodeB, team.getId()), "busTeam2");
+    }
+
+    @Test
+    public void 롤백되면_이벤트가_저장되지_않는다() throws Exception {
+        //given
+        Member member = nodeA.getBean(MemberRepository.class).save(new Member("bus2", 10));
+        assertEquals(countEvents(member.getId()), 1); // 등록 이벤트
+
+        //when
+        new TransactionTemplate(nodeA.getBean(PlatformTransactionManager.class)).execute(status -> {
+            nodeA.getBean(MemberRepository.class).findById(member.getId()).get().setAge(99);
+            nodeA.getBean(MemberRepository.class).flush();
+            status.setRollbackOnly();
+            return null;
+        });
+
+        //then
+        assertEquals(countEvents(member.getId()), 1);
+    }
+
+    @Test
+    public void 한트랜잭션에서_많이_바뀌면_엔티티전체_이벤트로_합친다() throws Exception {
+        //given
+        InvalidationTransport transportB = nodeB.getBean(InvalidationTransport.class);
+        transportB.poll();
+
+        //when coalesce-threshold(100) 보다 많이 등록
+        inTransaction(nodeA, () -> {
+            for (int i = 0; i < 150; i++) {
+                nodeA.getBean(MemberRepository.class).save(new Member("busBulk" + i, 10));
+            }
+        });
+        List<InvalidationEvent> events = transportB.poll();
+
+        //then
+        assertTrue(events.contains(InvalidationEvent.all(Member.class)));
+        assertTrue(events.stream().noneMatch(event -> event.getEntityName().equals(Member.class.getName()) && !event.isAll()));
+    }
+
+    private static ConfigurableApplicationContext startNode(String nodeId, String ddlAuto, String... args) {
+        List<String> arguments = new ArrayList<>(Arrays.asList(
+                "--spring.datasource.url=" + url,
+                "--spring.datasource.hikari.pool-name=" + nodeId,
+                "--spring.jpa.hibernate.ddl-auto=" + ddlAuto,
+                "--spring.jmx.enabled=false",
+                "--study.invalidation.node-id=" + nodeId,
+                "--study.invalidation.poll-interval-millis=3600000"));
+        arguments.addAll(Arrays.asList(args));
+        return new SpringApplicationBuilder(DataJpaApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(arguments.toArray(new String[0]));
+    }
+
+    @Test
+    public void 늦게_커밋된_이벤트도_받는다() throws Exception {
+        //given
+        InvalidationTransport transportA = nodeA.getBean(InvalidationTransport.class);
+        InvalidationTransport transportB = nodeB.getBean(InvalidationTransport.class);
+        InvalidationEvent slow = InvalidationEvent.of(Member.class, -1L);
+        InvalidationEvent fast = InvalidationEvent.of(Member.class, -2L);
+        transportB.poll();
+
+        //when 먼저 insert한 트랜잭션이 커밋하기 전에 뒤의 트랜잭션이 커밋된다
+        CountDownLatch inserted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread slowTransaction = new Thread(() -> inTransaction(nodeA, () -> {
+            transportA.publish(slow);
+            inserted.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        slowTransaction.start();
+        inserted.await();
+        inTransaction(nodeA, () -> transportA.publish(fast));
+        List<InvalidationEvent> beforeCommit = transportB.poll();
+        release.countDown();
+        slowTransaction.join();
+        List<InvalidationEvent> afterCommit = transportB.poll();
+
+        //then
+        assertTrue(beforeCommit.contains(fast));
+        assertFalse(beforeCommit.contains(slow));
+        assertTrue(afterCommit.contains(slow));
+    }
+
+    @Test
+    public void 무효화를_끄면_이벤트를_저장하지_않는다() throws Exception {
+        try (ConfigurableApplicationContext nodeC = startNode("nodeC", "none", "--study.invalidation.enabled=false")) {
+            //when
+            Member member = nodeC.getBean(MemberRepository.class).save(new Member("busOff", 10));
+
+            //then
+            assertTrue(nodeC.getBeansOfType(InvalidationTransport.class).isEmpty());
+            assertEquals(countEvents(member.getId()), 0);
+        }
+    }
+
+    private static void inTransaction(ConfigurableApplicationContext node, Runnable action) {
+        new TransactionTemplate(node.getBean(PlatformTransactionManager.class)).execute(status -> {
+            action.run();
+            return null;
+        });
+    }
+
+    private static int countEvents(Long memberId) {
+        return nodeA.getBean(JdbcTemplate.class).queryForObject(
+                "select count(*) from cache_invalidation_event where entity_name = ? and entity_id = ?",
+                Integer.class, Member.class.getName(), memberId.toString());
+    }
+
+    private static String findTeamName(ConfigurableApplicationContext node, Long teamId) {
+        return new TransactionTemplate(node.getBean(PlatformTransactionManager.class))
+                .execute(status -> node.getBean(TeamRepository.class).findById(teamId).get().getName());
+    }
+}
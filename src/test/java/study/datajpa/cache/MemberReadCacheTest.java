@@ -0,0 +1,177 @@
+package study.datajpa.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.dto.MemberSnapshot;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 커밋 후 무효화를 확인해야 하므로 테스트에 @Transactional을 걸지 않는다
+ */
+@SpringBootTest
+class MemberReadCacheTest {
+
+    @Autowired MemberReadCache memberReadCache;
+    @Autowired MemberRepository memberRepository;
+    @Autowired PlatformTransactionManager transactionManager;
+
+    @Test
+    public void 캐시에서_조회한다() throws Exception {
+        //given
+        Member member = memberRepository.save(new Member("cache1", 10));
+        memberReadCache.findById(member.getId());
+        long hitCount = memberReadCache.getByIdCache().stats().hitCount();
+
+        //when
+        memberReadCache.findById(member.getId());
+
+        //then
+        assertEquals(memberReadCache.getByIdCache().stats().hitCount(), hitCount + 1);
+    }
+
+    @Test
+    public void 수정하면_무효화된다() throws Exception {
+        //given
+        Member member = memberRepository.save(new Member("cache2", 10));
+        assertEquals(memberReadCache.findById(member.getId()).get().getAge(), 10);
+
+        //when
+        new TransactionTemplate(transactionManager).execute(status -> {
+            memberRepository.findById(member.getId()).get().setAge(20);
+            return null;
+        });
+
+        //then
+        assertEquals(memberReadCache.findById(member.getId()).get().getAge(), 20);
+    }
+
+    @Test
+    public void 벌크수정하면_무효화된다() throws Exception {
+        //given
+        Member member = memberRepository.save(new Member("cache3", 500));
+        assertEquals(memberReadCache.findByUsername("cache3").get().getAge(), 500);
+
+        //when
+        new TransactionTemplate(transactionManager).execute(status -> memberRepository.bulkAgePlus(500));
+
+        //then
+        assertEquals(memberReadCache.findById(member.getId()).get().getAge(), 501);
+        assertEquals(memberReadCache.findByUsername("cache3").get().getAge(), 501);
+    }
+
+    @Test
+    public void 이름을_바꾸면_이전이름으로_조회되지_않는다() throws Exception {
+        //given
+        Member member = memberRepository.save(new Member("cache4", 10));
+        memberReadCache.findByUsername("cache4");
+
+        //when
+        new TransactionTemplate(transactionManager).execute(status -> {
+            memberRepository.findById(member.getId()).get().setUsername("cache5");
+            return null;
+        });
+
+        //then
+        assertFalse(memberReadCache.findByUsername("cache4").isPresent());
+        assertEquals(memberReadCache.findByUsername("cache5").get().getId(), member.getId());
+    }
+
+    @Test
+    public void 롤백되면_커밋되지_않은_값이_남지_않는다() throws Exception {
+        //given
+        Member member = memberRepository.save(new Member("cache6", 10));
+
+        //when 트랜잭션 안에서 수정후 조회해서 캐시에 넣고 롤백
+        new TransactionTemplate(transactionManager).execute(status -> {
+            memberRepository.findById(member.getId()).get().setAge(99);
+            memberRepository.flush();
+            memberReadCache.findById(member.getId());
+            status.setRollbackOnly();
+            return null;
+        });
+
+        //then
+        assertEquals(memberReadCache.findById(member.getId()).get().getAge(), 10);
+    }
+
+    @Test
+    public void 한트랜잭션에서_여러명을_수정해도_콜백은_하나다() throws Exception {
+        //given
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+
+        //when
+        int[] counts = transactionTemplate.execute(status -> {
+            memberRepository.saveAndFlush(new Member("cacheMany0", 10));
+            int first = TransactionSynchronizationManager.getSynchronizations().size();
+            for (int i = 1; i <= 10; i++) {
+                memberRepository.save(new Member("cacheMany" + i, 10));
+            }
+            memberRepository.flush();
+            return new int[]{first, TransactionSynchronizationManager.getSynchronizations().size()};
+        });
+
+        //then
+        assertEquals(counts[1], counts[0]);
+    }
+
+    @Test
+    public void 조회중에_무효화되면_조회한_값을_넣지_않는다() throws Exception {
+        //given 이전 값을 조회하는 사이에 다른 스레드가 커밋하고 무효화한 상황
+        MemberRepository repository = mock(MemberRepository.class);
+        MemberReadCache cache = new MemberReadCache(repository, new SimpleMeterRegistry(), 100, 600, 1000, transactionManager);
+        MemberSnapshot stale = new MemberSnapshot(1L, "stale", 10, null, 0L, null);
+        when(repository.findSnapshotById(1L)).thenAnswer(invocation -> {
+            cache.invalidate(1L, "stale");
+            return Optional.of(stale);
+        });
+        when(repository.findSnapshotByUsername("stale")).thenAnswer(invocation -> {
+            cache.invalidate(1L, "stale");
+            return Collections.singletonList(stale);
+        });
+
+        //when
+        cache.findById(1L);
+        cache.findByUsername("stale");
+
+        //then
+        assertNull(cache.getByIdCache().getIfPresent(1L));
+        assertNull(cache.getIdByUsernameCache().getIfPresent("stale"));
+    }
+
+    @Test
+    public void readOnly_트랜잭션에서도_primary에서_읽는다() throws Exception {
+        //given readOnly 트랜잭션은 replica로 라우팅된다
+        MemberRepository repository = mock(MemberRepository.class);
+        MemberReadCache cache = new MemberReadCache(repository, new SimpleMeterRegistry(), 100, 600, 1000, transactionManager);
+        List<Boolean> readOnly = new ArrayList<>();
+        when(repository.findSnapshotById(1L)).thenAnswer(invocation -> {
+            readOnly.add(TransactionSynchronizationManager.isCurrentTransactionReadOnly());
+            return Optional.of(new MemberSnapshot(1L, "primary", 10, null, 0L, null));
+        });
+        TransactionTemplate readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+
+        //when
+        readOnlyTransaction.execute(status -> cache.findById(1L));
+
+        //then
+        assertEquals(readOnly, Collections.singletonList(false));
+    }
+}
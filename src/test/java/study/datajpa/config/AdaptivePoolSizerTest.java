@@ -0,0 +1,27 @@
+package study.datajpa.config;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class AdaptivePoolSizerTest {
+
+    @Test
+    public void 대기가_길면_키운다() throws Exception {
+        // 대기 20ms, 사용 10ms, 대기 스레드 있음
+        assertEquals(AdaptivePoolSizer.nextSize(10, 0, 3, 20, 10, 5, 50, 0.5, 0.05), 12);
+        assertEquals(AdaptivePoolSizer.nextSize(48, 0, 3, 20, 10, 5, 50, 0.5, 0.05), 50); // 최대 크기
+    }
+
+    @Test
+    public void 놀고있으면_줄인다() throws Exception {
+        assertEquals(AdaptivePoolSizer.nextSize(10, 4, 0, 0, 10, 5, 50, 0.5, 0.05), 9);
+        assertEquals(AdaptivePoolSizer.nextSize(5, 4, 0, 0, 10, 5, 50, 0.5, 0.05), 5); // 최소 크기
+    }
+
+    @Test
+    public void db가_느려서_기다리는건_키우지_않는다() throws Exception {
+        // 사용시간(db 작업)이 대기시간보다 훨씬 길다
+        assertEquals(AdaptivePoolSizer.nextSize(10, 0, 3, 20, 200, 5, 50, 0.5, 0.05), 10);
+    }
+}
@@ -0,0 +1,89 @@
+package study.datajpa.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 메모리 h2 두개를 primary, replica로 사용해 어느 DB에서 조회했는지 확인한다
+ */
+class ReplicationRoutingDataSourceTest {
+
+    DataSource primary = node("routing-primary");
+    DataSource replica = node("routing-replica");
+    ReplicaLagMonitor monitor = new ReplicaLagMonitor(replica, null, 5);
+    DataSource dataSource = new LazyConnectionDataSourceProxy(new ReplicationRoutingDataSource(primary, replica, monitor));
+    JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+    TransactionTemplate writeTransaction = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+    TransactionTemplate readTransaction = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+
+    @BeforeEach
+    public void setUp() {
+        readTransaction.setReadOnly(true);
+    }
+
+    @Test
+    public void readOnly_트랜잭션은_replica를_사용한다() throws Exception {
+        assertEquals(readTransaction.execute(status -> currentNode()), "routing-replica");
+        assertEquals(writeTransaction.execute(status -> currentNode()), "routing-primary");
+    }
+
+    @Test
+    public void replica_지연이_크면_primary에서_읽는다() throws Exception {
+        //given
+        ReplicaLagMonitor laggingMonitor = new ReplicaLagMonitor(replica, "select 10", 5);
+        laggingMonitor.check();
+        DataSource routing = new LazyConnectionDataSourceProxy(new ReplicationRoutingDataSource(primary, replica, laggingMonitor));
+        TransactionTemplate transaction = new TransactionTemplate(new DataSourceTransactionManager(routing));
+        transaction.setReadOnly(true);
+
+        //when
+        String node = transaction.execute(status -> new JdbcTemplate(routing).queryForObject("select name from node", String.class));
+
+        //then
+        assertEquals(node, "routing-primary");
+    }
+
+    @Test
+    public void primary_풀에도_hikari_설정을_적용한다() throws Exception {
+        //given
+        DataSourceProperties properties = new DataSourceProperties();
+        properties.setUrl("jdbc:h2:mem:routing-bind;DB_CLOSE_DELAY=-1");
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("spring.datasource.hikari.maximum-pool-size", "7")
+                .withProperty("spring.datasource.hikari.connection-timeout", "3000");
+
+        //when
+        HikariDataSource primary = ReplicationDataSourceConfig.createPrimary(properties, environment);
+
+        //then
+        assertEquals(primary.getMaximumPoolSize(), 7);
+        assertEquals(primary.getConnectionTimeout(), 3000);
+        assertEquals(primary.getPoolName(), "primary");
+        primary.close();
+    }
+
+    private String currentNode() {
+        return jdbcTemplate.queryForObject("select name from node", String.class);
+    }
+
+    private static DataSource node(String name) {
+        DataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("create table if not exists node (name varchar(50))");
+        jdbcTemplate.update("delete from node");
+        jdbcTemplate.update("insert into node values (?)", name);
+        return dataSource;
+    }
+}
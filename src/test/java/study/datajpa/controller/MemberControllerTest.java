@@ -0,0 +1,114 @@
+package study.datajpa.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.TeamRepository;
+
+import javax.persistence.EntityManager;
+
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@Transactional
+class MemberControllerTest {
+
+    @Autowired MockMvc mockMvc;
+    @Autowired MemberRepository memberRepository;
+    @Autowired TeamRepository teamRepository;
+    @Autowired EntityManager em;
+
+    @Test
+    public void 조건부조회_회원() throws Exception {
+        //given
+        Member member = memberRepository.save(new Member("etag", 10));
+        em.flush();
+        String etag = mockMvc.perform(get("/members/" + member.getId()))
+                .andExpect(status().isOk())
+                .andExpect(content().string("etag"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        //when then 바뀌지 않았으면 304
+        mockMvc.perform(get("/members/" + member.getId()).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        //when then 벌크 수정도 version이 올라가 200
+        memberRepository.bulkAgePlus(10);
+        String changed = mockMvc.perform(get("/members/" + member.getId()).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotEquals(changed, etag);
+    }
+
+    @Test
+    public void 없는_회원은_404() throws Exception {
+        mockMvc.perform(get("/members/" + Long.MAX_VALUE))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    public void username으로_조회() throws Exception {
+        //given
+        memberRepository.save(new Member("byUsername", 10));
+        em.flush();
+
+        //when then
+        mockMvc.perform(get("/members/by-username/byUsername"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.age").value(10));
+        mockMvc.perform(get("/members/by-username/noSuchMember"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    public void 잘못된_커서는_400() throws Exception {
+        mockMvc.perform(get("/members/cursor").param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/members/cursor").param("cursor", "%%%"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED) // 변경 번호는 트랜잭션마다 한번 오르므로 커밋하면서 확인한다
+    public void 조건부조회_목록() throws Exception {
+        //given
+        Member member = memberRepository.save(new Member("etag1", 10));
+        String etag = mockMvc.perform(get("/members"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        //when then
+        mockMvc.perform(get("/members").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        memberRepository.save(new Member("etag2", 10));
+        etag = mockMvc.perform(get("/members").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        //when then 삭제후 등록해서 건수, version 합계가 같아도 바뀐다
+        memberRepository.delete(member);
+        memberRepository.save(new Member("etag3", 10));
+        etag = mockMvc.perform(get("/members").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        //when then 팀 이름만 바뀌어도 바뀐다
+        teamRepository.save(new Team("etagTeam"));
+        mockMvc.perform(get("/members").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
+    }
+}
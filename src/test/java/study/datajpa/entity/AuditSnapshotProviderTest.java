@@ -0,0 +1,48 @@
+package study.datajpa.entity;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * 트랜잭션 경계를 직접 만들기 때문에 테스트에 @Transactional을 걸지 않는다
+ */
+@SpringBootTest
+class AuditSnapshotProviderTest {
+
+    @Autowired AuditSnapshotProvider auditSnapshotProvider;
+    @Autowired PlatformTransactionManager transactionManager;
+
+    @Test
+    public void REQUIRES_NEW_트랜잭션은_따로_구한다() throws Exception {
+        //given
+        TransactionTemplate outer = new TransactionTemplate(transactionManager);
+        TransactionTemplate inner = new TransactionTemplate(transactionManager);
+        inner.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        outer.execute(status -> {
+            AuditSnapshot before = auditSnapshotProvider.current();
+
+            //when
+            AuditSnapshot[] inInner = new AuditSnapshot[2];
+            inner.execute(innerStatus -> {
+                inInner[0] = auditSnapshotProvider.current();
+                inInner[1] = auditSnapshotProvider.current();
+                return null;
+            });
+            AuditSnapshot after = auditSnapshotProvider.current();
+
+            //then
+            assertNotSame(inInner[0], before);
+            assertSame(inInner[1], inInner[0]);
+            assertSame(after, before); // 안쪽 트랜잭션이 끝나도 바깥 트랜잭션의 값은 그대로다
+            return null;
+        });
+    }
+}
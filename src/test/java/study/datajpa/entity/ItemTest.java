@@ -3,13 +3,27 @@ package study.datajpa.entity;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import study.datajpa.repository.ItemRepository;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
 @SpringBootTest
 class ItemTest {
 
     @Autowired
     ItemRepository itemRepository;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
     
     @Test
     public void save() throws Exception {
@@ -27,4 +41,47 @@ class ItemTest {
         //then
     }
 
-}
\ No newline at end of file
+    @Test
+    public void saveAllNew() throws Exception {
+        //given
+        List<Item> items = Arrays.asList(new Item("saveAllNew1"), new Item("saveAllNew2"));
+
+        //when merge(select) 없이 insert만 실행된다
+        itemRepository.saveAllNew(items);
+
+        //then
+        Item findItem = itemRepository.findById("saveAllNew1").get();
+        assertFalse(findItem.isNew()); // 조회한 엔티티는 신규가 아니다
+        assertNotNull(findItem.getCreatedDate());
+    }
+
+    @Test
+    public void upsertAll() throws Exception {
+        //given
+        itemRepository.saveAllNew(Collections.singletonList(new Item("upsert1")));
+
+        //when 이미 있는 id는 수정, 없는 id는 등록
+        int rows = itemRepository.upsertAll(Arrays.asList(new Item("upsert1"), new Item("upsert2")));
+
+        //then
+        assertEquals(rows, 2);
+        assertTrue(itemRepository.findById("upsert2").isPresent());
+        assertEquals(itemRepository.upsertAll(Collections.emptyList()), 0);
+    }
+
+    @Test
+    public void upsertAll_같은_트랜잭션의_엔티티와_같은_시각() throws Exception {
+        //when
+        new TransactionTemplate(transactionManager).execute(status -> {
+            itemRepository.saveAllNew(Collections.singletonList(new Item("upsertTime1")));
+            itemRepository.upsertAll(Collections.singletonList(new Item("upsertTime2")));
+            return null;
+        });
+
+        //then
+        Item saved = itemRepository.findById("upsertTime1").get();
+        Item upserted = itemRepository.findById("upsertTime2").get();
+        assertEquals(upserted.getCreatedDate(), saved.getCreatedDate());
+        assertEquals(upserted.getLastModifiedDate(), saved.getLastModifiedDate());
+    }
+}
@@ -11,6 +11,8 @@ import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
 import java.util.List;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
 @SpringBootTest
 @Transactional
 @Rollback(value = false)
@@ -73,4 +75,45 @@ class MemberTest {
         System.out.println("findMember.getLastModifiedBy() = " + findMember.getLastModifiedBy());
     }
 
-}
\ No newline at end of file
+    @Test
+    public void auditSnapshotPerTransaction() throws Exception {
+        //given
+        Member member1 = new Member("member1");
+        Member member2 = new Member("member2");
+        Team team = new Team("teamA");
+
+        //when 같은 트랜잭션에서 저장한 엔티티는 같은 감사 정보를 사용한다
+        em.persist(member1);
+        em.persist(member2);
+        em.persist(team);
+
+        //then
+        assertEquals(member1.getCreatedBy(), member2.getCreatedBy());
+        assertEquals(member1.getCreatedDate(), member2.getCreatedDate());
+        assertEquals(member1.getCreatedDate(), team.getCreatedDate());
+        assertEquals(member1.getCreatedDate(), member1.getLastModifiedDate());
+    }
+
+    @Test
+    @Rollback // 1000건을 남기면 건수, 페이지를 확인하는 다른 테스트가 실행 순서에 따라 달라진다
+    public void pooledSequence() throws Exception {
+        //given
+        int count = 1000;
+        long start = System.currentTimeMillis();
+
+        //when allocation size 만큼은 시퀀스 조회 없이 메모리에서 id를 할당한다
+        Member first = new Member("pooled0", 10);
+        em.persist(first);
+        Member last = first;
+        for (int i = 1; i < count; i++) {
+            last = new Member("pooled" + i, 10);
+            em.persist(last);
+        }
+        em.flush();
+        long elapsed = System.currentTimeMillis() - start;
+
+        //then
+        System.out.println("insert " + count + " rows elapsed = " + elapsed + "ms");
+        assertEquals(first.getId() + count - 1, last.getId()); // 다른 엔티티와 시퀀스를 공유하지 않아 id가 연속된다
+    }
+}
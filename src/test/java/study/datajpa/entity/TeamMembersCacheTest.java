@@ -0,0 +1,83 @@
+package study.datajpa.entity;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.TeamRepository;
+import study.datajpa.service.ImportFormat;
+import study.datajpa.service.MemberImportService;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * team.members 2차 캐시가 회원 이동, 대량 등록, 삭제 후에도 맞는지 확인한다.
+ * 캐시는 커밋할때 반영되므로 테스트에 @Transactional을 걸지 않는다
+ */
+@SpringBootTest
+class TeamMembersCacheTest {
+
+    @Autowired TeamRepository teamRepository;
+    @Autowired MemberRepository memberRepository;
+    @Autowired MemberImportService memberImportService;
+    @Autowired PlatformTransactionManager transactionManager;
+
+    @Test
+    public void 회원이동_등록_삭제후_캐시된_컬랙션() throws Exception {
+        //given 두 팀의 members를 2차 캐시에 올린다
+        Team teamA = teamRepository.save(new Team("membersCacheA"));
+        Team teamB = teamRepository.save(new Team("membersCacheB"));
+        Member member1 = memberRepository.save(new Member("membersCache1", 10, teamA));
+        Member member2 = memberRepository.save(new Member("membersCache2", 10, teamA));
+        assertEquals(memberNames(teamA.getId()), names("membersCache1", "membersCache2"));
+        assertEquals(memberNames(teamB.getId()), names());
+
+        //when 이동
+        execute(() -> memberRepository.findById(member1.getId()).get()
+                .changeTeam(teamRepository.findById(teamB.getId()).get()));
+
+        //then
+        assertEquals(memberNames(teamA.getId()), names("membersCache2"));
+        assertEquals(memberNames(teamB.getId()), names("membersCache1"));
+
+        //when 대량 등록
+        String csv = "membersCache3,10,membersCacheA\n";
+        memberImportService.importMembers(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), ImportFormat.CSV);
+
+        //then
+        assertEquals(memberNames(teamA.getId()), names("membersCache2", "membersCache3"));
+
+        //when 삭제
+        execute(() -> memberRepository.delete(memberRepository.findById(member2.getId()).get()));
+
+        //then
+        assertEquals(memberNames(teamA.getId()), names("membersCache3"));
+    }
+
+    private List<String> memberNames(Long teamId) {
+        return new TransactionTemplate(transactionManager).execute(status ->
+                teamRepository.findById(teamId).get().getMembers().stream()
+                        .map(Member::getUsername)
+                        .sorted()
+                        .collect(Collectors.toList()));
+    }
+
+    private static List<String> names(String... names) {
+        return Arrays.asList(names);
+    }
+
+    private void execute(Runnable action) {
+        new TransactionTemplate(transactionManager).execute(status -> {
+            action.run();
+            return null;
+        });
+    }
+}
@@ -0,0 +1,81 @@
+package study.datajpa.monitoring;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.service.MemberQueryService;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 커넥션을 요청 안에서 반납해야 기록되므로 테스트에 @Transactional을 걸지 않는다
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class ConnectionMetricsListenerTest {
+
+    @Autowired MockMvc mockMvc;
+    @Autowired MeterRegistry meterRegistry;
+    @Autowired MemberRepository memberRepository;
+    @Autowired MemberQueryService memberQueryService;
+
+    @Test
+    public void 요청경로별_커넥션_보유시간() throws Exception {
+        //given
+        Member member = memberRepository.save(new Member("hold", 10));
+
+        //when
+        mockMvc.perform(get("/members2/" + member.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.username").value("hold"));
+
+        //then
+        Timer hold = meterRegistry.find(ConnectionMetricsListener.HOLD_METRIC)
+                .tag("endpoint", "/members2/{id}")
+                .timer();
+        assertNotNull(hold);
+        assertTrue(hold.count() >= 1);
+    }
+
+    @Test
+    public void 서비스_트랜잭션은_서비스_메서드로_기록한다() throws Exception {
+        //given
+        Member member = memberRepository.save(new Member("entrypoint", 10));
+
+        //when 서비스 트랜잭션이 시작될때 커넥션을 꺼내고 레파지토리는 그 커넥션을 이어서 쓴다
+        memberQueryService.findMember(member.getId());
+
+        //then
+        Timer acquire = meterRegistry.find(ConnectionMetricsListener.ACQUIRE_METRIC)
+                .tag("entrypoint", "MemberQueryService.findMember")
+                .timer();
+        assertNotNull(acquire);
+        assertTrue(acquire.count() >= 1);
+        assertNotNull(meterRegistry.find(ConnectionMetricsListener.HOLD_METRIC)
+                .tag("entrypoint", "MemberQueryService.findMember")
+                .timer());
+    }
+
+    @Test
+    public void 레파지토리_메서드별_커넥션_획득시간() throws Exception {
+        //when 트랜잭션 없이 레파지토리를 호출하면 레파지토리 트랜잭션이 커넥션을 꺼낸다
+        memberRepository.findListByUsername("acquire");
+
+        //then
+        Timer acquire = meterRegistry.find(ConnectionMetricsListener.ACQUIRE_METRIC)
+                .tag("entrypoint", "MemberRepository.findListByUsername")
+                .timer();
+        assertNotNull(acquire);
+        assertTrue(acquire.count() >= 1);
+    }
+}
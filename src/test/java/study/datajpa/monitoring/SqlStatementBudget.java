@@ -0,0 +1,19 @@
+package study.datajpa.monitoring;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 테스트에서 실행할수 있는 최대 sql 수. SqlStatementExtension이 테스트 종료시 검증한다.
+ * 데이터 준비 쿼리는 SqlStatementRecorder.reset()을 호출해 제외한다.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface SqlStatementBudget {
+    int max();
+
+    /** 같은 select가 이 횟수 이상 반복되면 N+1로 보고 실패시킨다 */
+    int nPlusOneThreshold() default 3;
+}
@@ -0,0 +1,51 @@
+package study.datajpa.monitoring;
+
+import org.junit.jupiter.api.extension.AfterEachCallback;
+import org.junit.jupiter.api.extension.BeforeEachCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+import java.util.Map;
+
+/**
+ * 테스트마다 실행된 sql을 기록하고 @SqlStatementBudget 이 있으면 실행 횟수를 검증한다.
+ * SpringExtension 보다 뒤에 등록되므로 트랜잭션 커밋(롤백) 전에 검증한다.
+ */
+public class SqlStatementExtension implements BeforeEachCallback, AfterEachCallback {
+
+    @Override
+    public void beforeEach(ExtensionContext context) {
+        SqlStatementRecorder.start(context.getDisplayName());
+    }
+
+    @Override
+    public void afterEach(ExtensionContext context) {
+        SqlStatementLog log = SqlStatementRecorder.stop();
+        SqlStatementBudget budget = context.getRequiredTestMethod().getAnnotation(SqlStatementBudget.class);
+        if (budget == null || log == null) {
+            return;
+        }
+
+        Map<String, Integer> repeated = log.findRepeatedSelects(budget.nPlusOneThreshold());
+        if (!repeated.isEmpty()) {
+            throw new AssertionError("N+1 쿼리가 발생했습니다. repeated=" + repeated);
+        }
+        if (log.getCount() > budget.max()) {
+            throw new AssertionError("sql 실행 횟수 초과. expected <= " + budget.max()
+                    + ", actual = " + log.getCount() + ", statements = " + log.getStatements());
+        }
+    }
+
+    /**
+     * 테스트 중간에 현재까지 실행된 sql 수를 검증한다
+     */
+    public static void assertStatementCount(int max) {
+        SqlStatementLog log = SqlStatementRecorder.current();
+        if (log == null) {
+            throw new IllegalStateException("SqlStatementExtension이 등록되지 않았습니다.");
+        }
+        if (log.getCount() > max) {
+            throw new AssertionError("sql 실행 횟수 초과. expected <= " + max
+                    + ", actual = " + log.getCount() + ", statements = " + log.getStatements());
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package study.datajpa.monitoring;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SqlStatementLogTest {
+
+    @Test
+    public void 파라미터만_다른_select는_같은_sql로_센다() throws Exception {
+        //given
+        SqlStatementLog log = new SqlStatementLog("test");
+        log.add("select * from team where team_id=?");
+        log.add("select * from team where team_id=1");
+        log.add("SELECT *  FROM team WHERE team_id=2");
+        log.add("insert into member (username) values ('a')");
+
+        //when
+        Map<String, Integer> repeated = log.findRepeatedSelects(3);
+
+        //then
+        assertEquals(log.getCount(), 4);
+        assertEquals(repeated.size(), 1);
+        assertEquals(repeated.get("select * from team where team_id=?"), 3);
+    }
+
+    @Test
+    public void 기준보다_적게_반복되면_N플러스1이_아니다() throws Exception {
+        SqlStatementLog log = new SqlStatementLog("test");
+        log.add("select * from member");
+        log.add("select * from team where team_id=?");
+
+        assertTrue(log.findRepeatedSelects(2).isEmpty());
+    }
+}
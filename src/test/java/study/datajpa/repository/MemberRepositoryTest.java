@@ -2,6 +2,7 @@ package study.datajpa.repository;
 
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.data.domain.Page;
@@ -10,23 +11,32 @@ import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.test.annotation.Rollback;
 import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.dto.MemberCursor;
 import study.datajpa.dto.MemberDto;
 import study.datajpa.entity.Member;
 import study.datajpa.entity.Team;
+import study.datajpa.monitoring.SqlStatementBudget;
+import study.datajpa.monitoring.SqlStatementExtension;
+import study.datajpa.monitoring.SqlStatementRecorder;
+import study.datajpa.repository.support.BulkEvictionMode;
 
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @SpringBootTest
 @Transactional
 @Rollback(value = false) // true면 롤백됨
+@ExtendWith(SqlStatementExtension.class)
 class MemberRepositoryTest {
 
     @Autowired MemberRepository memberRepository;
@@ -295,6 +305,90 @@ class MemberRepositoryTest {
         Page<MemberDto> map = page.map(m -> new MemberDto(m.getId(), m.getUsername(), null));
     }
 
+    @DisplayName("커서 다음 데이터부터 조회하면 offset 없이 다음 페이지를 가져온다")
+    @Test
+    public void paging5_키셋페이징() throws Exception {
+        //given
+        memberRepository.save(new Member("member1", 10));
+        memberRepository.save(new Member("member2", 10));
+        memberRepository.save(new Member("member3", 10));
+        memberRepository.save(new Member("member4", 10));
+        memberRepository.save(new Member("member5", 10));
+
+        //when
+        List<MemberDto> first = memberRepository.findMemberDtoByCursor(null, 3);
+        MemberDto last = first.get(first.size() - 1);
+        MemberCursor cursor = MemberCursor.decode(new MemberCursor(last.getUsername(), last.getId()).encode());
+        List<MemberDto> second = memberRepository.findMemberDtoByCursor(cursor, 3);
+
+        //then
+        assertEquals(first.size(), 3);
+        assertEquals(last.getUsername(), "member3");
+        assertEquals(second.size(), 2);
+        assertEquals(second.get(0).getUsername(), "member4");
+    }
+
+    @Test
+    public void 키셋페이징_username이_없는_회원은_제외한다() throws Exception {
+        //given
+        memberRepository.save(new Member(null, 10));
+        memberRepository.save(new Member("member1", 10));
+
+        //when
+        List<MemberDto> first = memberRepository.findMemberDtoByCursor(null, 100);
+
+        //then
+        assertTrue(first.stream().allMatch(m -> m.getUsername() != null));
+        assertTrue(first.stream().anyMatch(m -> m.getUsername().equals("member1")));
+    }
+
+    @Test
+    public void streamMemberDto() throws Exception {
+        //given
+        Team team = new Team("teamA");
+        teamRepository.save(team);
+        memberRepository.save(new Member("member1", 10, team));
+        memberRepository.save(new Member("member2", 10, team));
+        Member member3 = memberRepository.save(new Member("member3", 10));
+        em.flush();
+
+        //when fetchSize를 작게 줘서 여러번 나눠 읽어도 끝까지 조회되는지 확인
+        List<MemberDto> result;
+        try (Stream<MemberDto> stream = memberRepository.streamMemberDto(2)) {
+            result = stream.collect(Collectors.toList());
+        }
+
+        //then 호출한 쪽의 영속성 컨텍스트는 그대로
+        assertEquals(result.size(), 3);
+        assertEquals(result.stream().filter(dto -> "teamA".equals(dto.getTeamName())).count(), 2);
+        assertTrue(em.contains(member3));
+        assertTrue(em.contains(team));
+    }
+
+    @DisplayName("DTO 프로젝션으로 팀 이름까지 한번의 쿼리로 페이징 조회한다")
+    @Test
+    public void paging6_DTO프로젝션() throws Exception {
+        //given
+        Team teamA = new Team("teamA");
+        teamRepository.save(teamA);
+        memberRepository.save(new Member("member1", 10, teamA));
+        memberRepository.save(new Member("member2", 10, teamA));
+        memberRepository.save(new Member("member3", 10));
+        em.flush();
+        em.clear();
+
+        PageRequest pageRequest = PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC, "username"));
+
+        //when
+        Page<MemberDto> page = memberRepository.findMemberDtoPage(pageRequest);
+
+        //then
+        assertEquals(page.getTotalElements(), 3);
+        assertEquals(page.getContent().get(0).getUsername(), "member3");
+        assertNull(page.getContent().get(0).getTeamName());
+        assertEquals(page.getContent().get(1).getTeamName(), "teamA");
+    }
+
     @Test
     public void bulkUpdate() throws Exception {
         //given
@@ -320,6 +414,26 @@ class MemberRepositoryTest {
         assertEquals(findMember5.getAge(), 41);
     }
     
+    @DisplayName("벌크연산 후 수정 대상 회원만 새로고침하고 나머지 엔티티는 영속 상태를 유지한다")
+    @Test
+    public void bulkUpdateAndEvict() throws Exception {
+        //given
+        Team team = new Team("teamA");
+        teamRepository.save(team);
+        Member member1 = memberRepository.save(new Member("member1", 10, team));
+        Member member2 = memberRepository.save(new Member("member2", 40, team));
+
+        //when
+        int resultCnt = memberRepository.bulkAgePlusAndEvict(20, BulkEvictionMode.REFRESH);
+
+        //then
+        assertThat(resultCnt).isGreaterThanOrEqualTo(1);
+        assertEquals(member2.getAge(), 41); // 새로고침 되어 벌크연산 결과가 적용됨
+        assertEquals(member1.getAge(), 10);
+        assertThat(em.contains(team)).isTrue();
+        assertThat(em.contains(member1)).isTrue();
+    }
+
     @Test
     public void findMemberLazy() throws Exception {
         //given
@@ -348,8 +462,38 @@ class MemberRepositoryTest {
         }
     }
 
+    @DisplayName("지연로딩 하는 팀 프록시를 in 절로 모아서 한번에 조회한다 (default_batch_fetch_size)")
+    @Test
+    @SqlStatementBudget(max = 2) // 회원 조회 1번 + 팀 조회 1번
+    public void findMemberLazyBatch() throws Exception {
+        //given
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        Team teamC = new Team("teamC");
+        teamRepository.save(teamA);
+        teamRepository.save(teamB);
+        teamRepository.save(teamC);
+
+        memberRepository.save(new Member("member1", 10, teamA));
+        memberRepository.save(new Member("member2", 10, teamB));
+        memberRepository.save(new Member("member3", 10, teamC));
+
+        em.flush();
+        em.clear();
+        SqlStatementRecorder.reset();
+
+        //when
+        List<Member> members = memberRepository.findMemberCustom();
+
+        //then 팀 수 만큼 쿼리가 나가지 않는다
+        for (Member member : members) {
+            System.out.println("member.getTeam().getName() = " + member.getTeam().getName());
+        }
+    }
+
     @DisplayName("JPQL 패치 조인으로 Member와 Team 한번에 조회한다")
     @Test
+    @SqlStatementBudget(max = 1) // 회원과 팀을 한번에 조회
     public void findMemberLazy2() throws Exception {
         //given
         Team teamA = new Team("teamA");
@@ -366,6 +510,7 @@ class MemberRepositoryTest {
 
         em.flush();
         em.clear();
+        SqlStatementRecorder.reset();
 
         //when : lazy로딩이라도 패치조인을 사용하면 한번에 조회가 가능하다. 단 주 엔티티가 N:1 관계일
         List<Member> members = memberRepository.findMemberFetchJoin();
@@ -381,6 +526,7 @@ class MemberRepositoryTest {
 
     @DisplayName("entity graph로 Member와 Team 한번에 조회한다")
     @Test
+    @SqlStatementBudget(max = 1) // 회원과 팀을 한번에 조회
     public void findMemberLazy3() throws Exception {
         //given
         Team teamA = new Team("teamA");
@@ -397,6 +543,7 @@ class MemberRepositoryTest {
 
         em.flush();
         em.clear();
+        SqlStatementRecorder.reset();
 
         //when
         List<Member> members = memberRepository.findEntityGraphByUsername("member1");
@@ -412,6 +559,7 @@ class MemberRepositoryTest {
     
     @DisplayName("NamedEntityGraph로 사전에 정의한 EntityGraph를 실행할 수 있다")
     @Test
+    @SqlStatementBudget(max = 1) // 회원과 팀을 한번에 조회
     public void findMemberLazy4() throws Exception {
         //given
         Team teamA = new Team("teamA");
@@ -428,6 +576,7 @@ class MemberRepositoryTest {
 
         em.flush();
         em.clear();
+        SqlStatementRecorder.reset();
 
         //when
         List<Member> members = memberRepository.findEntityGraph2ByUsername("member1");
@@ -0,0 +1,149 @@
+package study.datajpa.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.dto.MemberSearchCondition;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.monitoring.SqlStatementLog;
+import study.datajpa.monitoring.SqlStatementRecorder;
+
+import javax.persistence.EntityManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+@SpringBootTest
+@Transactional
+class MemberSearchTest {
+
+    @Autowired MemberQueryRepository memberQueryRepository;
+    @Autowired MemberRepository memberRepository;
+    @Autowired TeamRepository teamRepository;
+    @Autowired JdbcTemplate jdbcTemplate;
+    @Autowired EntityManager em;
+
+    @BeforeEach
+    public void setUp() {
+        Team teamA = teamRepository.save(new Team("searchTeamA"));
+        Team teamB = teamRepository.save(new Team("searchTeamB"));
+        memberRepository.save(new Member("search1", 10, teamA));
+        memberRepository.save(new Member("search2", 20, teamA));
+        memberRepository.save(new Member("search3", 30, teamB));
+        memberRepository.save(new Member("other", 20, teamB));
+        em.flush();
+        em.clear();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        SqlStatementRecorder.stop();
+    }
+
+    @Test
+    public void search() throws Exception {
+        //given
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUsernamePrefix("search");
+        condition.setAgeGoe(15);
+        condition.setTeamName("searchTeamA");
+
+        //when
+        List<MemberDto> result = memberQueryRepository.search(condition, PageRequest.of(0, 10));
+
+        //then
+        assertEquals(result.size(), 1);
+        assertEquals(result.get(0).getUsername(), "search2");
+        assertEquals(result.get(0).getTeamName(), "searchTeamA");
+    }
+
+    @Test
+    public void search_생성일() throws Exception {
+        //given
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUsernamePrefix("search");
+        condition.setCreatedFrom(LocalDateTime.now().minusHours(1));
+        condition.setCreatedTo(LocalDateTime.now().plusHours(1));
+
+        //when
+        List<MemberDto> result = memberQueryRepository.search(condition, PageRequest.of(0, 2));
+
+        //then id 순으로 size 만큼
+        assertEquals(result.stream().map(MemberDto::getUsername).collect(Collectors.toList()),
+                Arrays.asList("search1", "search2"));
+    }
+
+    /**
+     * 조건 조합마다 h2 실행계획에 member 테이블 전체를 읽는 tableScan 이 없어야 한다
+     */
+    @Test
+    public void search_실행계획() throws Exception {
+        assertUsesIndex(c -> c.setUsernamePrefix("search"));
+        assertUsesIndex(c -> c.setAgeGoe(10));
+        assertUsesIndex(c -> {
+            c.setAgeGoe(10);
+            c.setAgeLoe(20);
+        });
+        assertUsesIndex(c -> c.setTeamName("searchTeamA"));
+        assertUsesIndex(c -> {
+            c.setTeamName("searchTeamA");
+            c.setAgeGoe(10);
+        });
+        assertUsesIndex(c -> {
+            c.setCreatedFrom(LocalDateTime.now().minusDays(1));
+            c.setCreatedTo(LocalDateTime.now());
+        });
+        assertUsesIndex(c -> {
+            c.setUsernamePrefix("search");
+            c.setAgeLoe(20);
+            c.setCreatedFrom(LocalDateTime.now().minusDays(1));
+        });
+    }
+
+    private void assertUsesIndex(Consumer<MemberSearchCondition> conditionSetter) {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        conditionSetter.accept(condition);
+
+        SqlStatementLog log = SqlStatementRecorder.start("plan");
+        memberQueryRepository.search(condition, PageRequest.of(0, 10));
+        SqlStatementRecorder.stop();
+
+        String sql = log.getStatements().get(log.getStatements().size() - 1);
+        String plan = explain(sql).toLowerCase(Locale.ROOT);
+        assertFalse(plan.contains(".member.tablescan"), condition + "\n" + plan);
+        assertFalse(plan.contains(".team.tablescan"), condition + "\n" + plan);
+    }
+
+    /**
+     * 실행계획은 prepare 시점에 정해지므로 파라미터는 null로 채워도 된다
+     */
+    private String explain(String sql) {
+        return jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement("explain " + sql);
+            int count = statement.getParameterMetaData().getParameterCount();
+            for (int i = 1; i <= count; i++) {
+                statement.setNull(i, Types.NULL);
+            }
+            return statement;
+        }, (ResultSet rs) -> {
+            rs.next();
+            return rs.getString(1);
+        });
+    }
+}
@@ -0,0 +1,43 @@
+package study.datajpa.repository;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.entity.Team;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@Transactional
+class TeamJpaRepositoryTest {
+
+    @Autowired TeamJpaRepository teamJpaRepository;
+    @Autowired TeamRepository teamRepository;
+    @PersistenceContext EntityManager em;
+
+    @Test
+    public void secondLevelCache() throws Exception {
+        //given
+        Team team = teamRepository.save(new Team("cacheTeam"));
+        em.flush();
+        em.clear();
+        Statistics statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+
+        //when 영속성 컨텍스트를 비워도 두번째 조회부터는 2차 캐시에서 가져온다
+        teamJpaRepository.findById(team.getId());
+        em.clear();
+        long hitCount = statistics.getSecondLevelCacheHitCount();
+        Team findTeam = teamJpaRepository.findById(team.getId()).get();
+
+        //then
+        assertEquals(findTeam.getName(), "cacheTeam");
+        assertTrue(statistics.getSecondLevelCacheHitCount() > hitCount);
+    }
+}
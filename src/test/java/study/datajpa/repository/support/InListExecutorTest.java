@@ -0,0 +1,124 @@
+package study.datajpa.repository.support;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import javax.persistence.EntityManager;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+@SpringBootTest(properties = {
+        "study.in-list.chunk-size=2",
+        "study.in-list.temp-table-threshold=4",
+        "study.in-list.parallelism=2"
+})
+@Transactional
+class InListExecutorTest {
+
+    @Autowired MemberRepository memberRepository;
+    @Autowired EntityManager em;
+    @Autowired PlatformTransactionManager transactionManager;
+    @Autowired InListExecutor inListExecutor;
+
+    @Test
+    public void 나눠서_조회한다() throws Exception {
+        //given
+        saveMembers("AAA", "BBB", "CCC", "DDD");
+
+        //when 3건 -> 2건, 1건으로 나눠 조회. 중복, null은 제외
+        List<Member> result = memberRepository.findByManyNames(Arrays.asList("AAA", "BBB", "CCC", "AAA", null));
+
+        //then
+        assertEquals(usernames(result), Arrays.asList("AAA", "BBB", "CCC"));
+    }
+
+    @Test
+    public void 임시테이블과_조인한다() throws Exception {
+        //given
+        saveMembers("AAA", "BBB", "CCC", "DDD", "EEE", "FFF");
+
+        //when 5건 > temp-table-threshold
+        List<Member> result = memberRepository.findByManyNames(Arrays.asList("AAA", "BBB", "CCC", "DDD", "EEE", "ZZZ"));
+        List<Member> again = memberRepository.findByManyNames(Arrays.asList("BBB", "CCC", "DDD", "EEE", "FFF"));
+
+        //then 같은 커넥션에서 다시 조회해도 이전 값이 남지 않는다
+        assertEquals(usernames(result), Arrays.asList("AAA", "BBB", "CCC", "DDD", "EEE"));
+        assertEquals(usernames(again), Arrays.asList("BBB", "CCC", "DDD", "EEE", "FFF"));
+    }
+
+    @Test
+    public void 쓰기_트랜잭션_안에서는_동시에_실행하지_않는다() throws Exception {
+        //given 커밋하지 않은 회원
+        InListExecutor parallel = new InListExecutor(transactionManager, 2, 4, 10000, 10);
+        saveMembers("AAA", "BBB", "CCC");
+
+        //when
+        Set<String> threads = new HashSet<>();
+        List<Member> result = parallel.execute(Arrays.asList("AAA", "BBB", "CCC"), names -> {
+            threads.add(Thread.currentThread().getName());
+            return memberRepository.findByNames(names);
+        });
+        parallel.shutdown();
+
+        //then 다른 스레드의 트랜잭션에서는 보이지 않는다
+        assertEquals(usernames(result), Arrays.asList("AAA", "BBB", "CCC"));
+        assertEquals(threads, Collections.singleton(Thread.currentThread().getName()));
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED) // 다른 스레드에서 보이도록 커밋한다
+    public void 쓰기_트랜잭션이_없으면_나눈_조회를_동시에_실행한다() throws Exception {
+        //given
+        memberRepository.save(new Member("parallel1", 10));
+        memberRepository.save(new Member("parallel2", 10));
+        memberRepository.save(new Member("parallel3", 10));
+        List<String> names = Arrays.asList("parallel1", "parallel2", "parallel3", "parallelX");
+
+        //when 4건 -> 2건씩 두번
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        List<Member> result = inListExecutor.execute(names, chunk -> {
+            threads.add(Thread.currentThread().getName());
+            return memberRepository.findByNames(chunk);
+        });
+        List<Member> byRepository = memberRepository.findByManyNames(names);
+
+        //then 작업 스레드에서 조회하고 결과를 합친다
+        assertFalse(threads.contains(Thread.currentThread().getName()));
+        assertEquals(usernames(result), Arrays.asList("parallel1", "parallel2", "parallel3"));
+        assertEquals(usernames(byRepository), Arrays.asList("parallel1", "parallel2", "parallel3"));
+    }
+
+    @Test
+    public void 빈목록() throws Exception {
+        assertEquals(memberRepository.findByManyNames(Arrays.asList()).size(), 0);
+    }
+
+    private void saveMembers(String... usernames) {
+        for (String username : usernames) {
+            memberRepository.save(new Member(username, 10));
+        }
+        em.flush();
+        em.clear();
+    }
+
+    private List<String> usernames(List<Member> members) {
+        return members.stream()
+                .map(Member::getUsername)
+                .sorted()
+                .collect(Collectors.toList());
+    }
+}
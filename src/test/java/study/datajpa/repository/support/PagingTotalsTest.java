@@ -0,0 +1,68 @@
+package study.datajpa.repository.support;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.dto.PageResult;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {
+        "study.paging.totals.strategies.hasNext=HAS_NEXT",
+        "study.paging.totals.strategies.cached=CACHED"
+})
+@Transactional
+class PagingTotalsTest {
+
+    @Autowired PagingTotals pagingTotals;
+    @Autowired MemberRepository memberRepository;
+
+    @Test
+    public void hasNext() throws Exception {
+        //given
+        saveMembers(5, 33);
+        PageRequest pageRequest = PageRequest.of(0, 3, Sort.by(Sort.Direction.DESC, "username"));
+
+        //when count 쿼리를 실행하지 않는다
+        PageResult<Member> result = pagingTotals.page("hasNext", 33, "member", pageRequest,
+                pageable -> memberRepository.findSliceByAge(33, pageable), () -> memberRepository.countByAge(33));
+
+        //then
+        assertEquals(result.getContent().size(), 3);
+        assertTrue(result.isHasNext());
+        assertNull(result.getTotalElements());
+        assertEquals(result.getTotalStrategy(), TotalCountStrategy.HAS_NEXT);
+    }
+
+    @Test
+    public void cached() throws Exception {
+        //given
+        saveMembers(5, 34);
+        PageRequest pageRequest = PageRequest.of(0, 3, Sort.by(Sort.Direction.DESC, "username"));
+        pagingTotals.page("cached", 34, "member", pageRequest,
+                pageable -> memberRepository.findSliceByAge(34, pageable), () -> memberRepository.countByAge(34));
+
+        //when ttl 안에서는 건수가 바뀌어도 처음 조회한 건수를 사용한다
+        saveMembers(1, 34);
+        PageResult<Member> result = pagingTotals.page("cached", 34, "member", pageRequest,
+                pageable -> memberRepository.findSliceByAge(34, pageable), () -> memberRepository.countByAge(34));
+
+        //then
+        assertEquals(result.getTotalElements(), 5L);
+        assertEquals(result.getTotalPages(), 2L);
+        assertEquals(result.getTotalStrategy(), TotalCountStrategy.CACHED);
+    }
+
+    private void saveMembers(int count, int age) {
+        for (int i = 0; i < count; i++) {
+            memberRepository.save(new Member("totals" + i, age));
+        }
+    }
+}
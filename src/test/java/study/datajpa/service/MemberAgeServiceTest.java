@@ -0,0 +1,77 @@
+package study.datajpa.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 스레드마다 별도 트랜잭션으로 커밋하기 때문에 테스트에 @Transactional을 걸지 않는다
+ */
+@SpringBootTest(properties = {
+        "study.optimistic-retry.max-attempts=1000",
+        "study.optimistic-retry.initial-backoff-millis=1",
+        "study.optimistic-retry.max-backoff-millis=10"})
+class MemberAgeServiceTest {
+
+    static final int THREADS = 2;
+    static final int INCREMENTS = 50;
+
+    @Autowired MemberAgeService memberAgeService;
+    @Autowired MemberRepository memberRepository;
+
+    @Test
+    public void 동시에_수정해도_변경이_유실되지_않는다_낙관적락() throws Exception {
+        //given
+        Member member = memberRepository.save(new Member("optimistic", 0));
+
+        //when
+        runConcurrently(() -> memberAgeService.addAgeOptimistic(member.getId(), 1));
+
+        //then
+        Member findMember = memberRepository.findById(member.getId()).get();
+        assertEquals(findMember.getAge(), THREADS * INCREMENTS);
+        assertTrue(findMember.getVersion() >= THREADS * INCREMENTS);
+    }
+
+    @Test
+    public void 동시에_수정해도_변경이_유실되지_않는다_비관적락() throws Exception {
+        //given
+        Member member = memberRepository.save(new Member("pessimistic", 0));
+
+        //when
+        runConcurrently(() -> memberAgeService.addAgePessimistic("pessimistic", 1));
+
+        //then
+        assertEquals(memberRepository.findById(member.getId()).get().getAge(), THREADS * INCREMENTS);
+    }
+
+    private void runConcurrently(Runnable increment) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                futures.add(executor.submit(() -> {
+                    for (int j = 0; j < INCREMENTS; j++) {
+                        increment.run();
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package study.datajpa.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.PlatformTransactionManager;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 구간마다 별도 트랜잭션으로 커밋하기 때문에 테스트에 @Transactional을 걸지 않는다
+ */
+@SpringBootTest(properties = "study.bulk-update.chunk-size=2")
+class MemberBulkUpdateServiceTest {
+
+    @Autowired MemberBulkUpdateService memberBulkUpdateService;
+    @Autowired MemberRepository memberRepository;
+
+    @Test
+    public void 구간별로_나눠서_수정한다() throws Exception {
+        //given
+        Member member1 = memberRepository.save(new Member("bulk1", 10));
+        Member member2 = memberRepository.save(new Member("bulk2", 200));
+        Member member3 = memberRepository.save(new Member("bulk3", 300));
+
+        //when
+        BulkUpdateJob job = memberBulkUpdateService.bulkAgePlus(200, true);
+
+        //then
+        assertTrue(job.isCompleted());
+        assertTrue(job.getTotalRanges() > 1);
+        assertEquals(memberRepository.findById(member1.getId()).get().getAge(), 10);
+        assertEquals(memberRepository.findById(member2.getId()).get().getAge(), 201);
+        assertEquals(memberRepository.findById(member3.getId()).get().getAge(), 301);
+    }
+
+    @Test
+    public void 완료된_구간은_다시_실행하지_않는다() throws Exception {
+        //given
+        Member member = memberRepository.save(new Member("bulk4", 400));
+        BulkUpdateJob job = memberBulkUpdateService.bulkAgePlus(400, false);
+
+        //when 같은 job으로 다시 실행
+        memberBulkUpdateService.run(job, false);
+
+        //then
+        assertTrue(job.pendingRanges().isEmpty());
+        assertEquals(memberRepository.findById(member.getId()).get().getAge(), 401);
+    }
+
+    @Test
+    public void 실패한_구간만_이어서_실행한다() throws Exception {
+        //given id 1~6을 2개씩 세 구간으로 나누고 두번째 구간은 처음 한번 실패한다
+        MemberRepository repository = mock(MemberRepository.class);
+        when(repository.findMinId()).thenReturn(1L);
+        when(repository.findMaxId()).thenReturn(6L);
+        when(repository.bulkAgePlusBetween(10, 1L, 2L)).thenReturn(2);
+        when(repository.bulkAgePlusBetween(10, 3L, 4L))
+                .thenThrow(new QueryTimeoutException("lock timeout"))
+                .thenReturn(2);
+        when(repository.bulkAgePlusBetween(10, 5L, 6L)).thenReturn(2);
+        MemberBulkUpdateService service = new MemberBulkUpdateService(repository, mock(PlatformTransactionManager.class), 2, 2);
+
+        //when
+        BulkUpdateJob job = service.bulkAgePlus(10, true);
+        Exception failure = job.getLastFailure();
+        List<BulkUpdateJob.IdRange> pending = job.pendingRanges();
+        service.run(job, true);
+        service.shutdown();
+
+        //then
+        assertTrue(failure instanceof QueryTimeoutException);
+        assertEquals(pending.size(), 1);
+        assertEquals(pending.get(0).getFrom(), 3L);
+        assertTrue(job.isCompleted());
+        assertNull(job.getLastFailure());
+        assertEquals(job.getUpdatedRows(), 6L);
+        verify(repository, times(1)).bulkAgePlusBetween(10, 1L, 2L);
+        verify(repository, times(2)).bulkAgePlusBetween(10, 3L, 4L);
+        verify(repository, times(1)).bulkAgePlusBetween(10, 5L, 6L);
+    }
+}
@@ -0,0 +1,93 @@
+package study.datajpa.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.dto.ImportResult;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+@Transactional
+class MemberImportServiceTest {
+
+    @Autowired MemberImportService memberImportService;
+    @Autowired MemberRepository memberRepository;
+
+    @Test
+    public void importCsv() throws Exception {
+        //given
+        String csv = "username,age,teamName\n" +
+                "importA,10,importTeam\n" +
+                "importB,20,importTeam\n" +
+                "importC,30,\n";
+
+        //when
+        ImportResult result = memberImportService.importMembers(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), ImportFormat.CSV);
+
+        //then
+        assertEquals(result.getRows(), 3);
+        Member memberB = memberRepository.findMemberByUsername("importB");
+        assertEquals(memberB.getAge(), 20);
+        assertEquals(memberB.getTeam().getName(), "importTeam");
+    }
+
+    @Test
+    public void importNdjson() throws Exception {
+        //given
+        String ndjson = "{\"username\":\"importD\",\"age\":10,\"teamName\":\"importTeam2\"}\n" +
+                "{\"username\":\"importE\",\"age\":20}\n";
+
+        //when
+        ImportResult result = memberImportService.importMembers(
+                new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)), ImportFormat.NDJSON);
+
+        //then
+        assertEquals(result.getRows(), 2);
+        assertEquals(memberRepository.findMemberByUsername("importD").getTeam().getName(), "importTeam2");
+    }
+
+    @Test
+    public void 형식이_맞지_않는_줄은_건너뛴다() throws Exception {
+        //given
+        String csv = "username,age,teamName\n" +
+                "importF,10,\n" +
+                "importG,abc,\n" +
+                "importH\n" +
+                "importI,20,\n";
+
+        //when
+        ImportResult result = memberImportService.importMembers(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), ImportFormat.CSV);
+
+        //then
+        assertEquals(result.getRows(), 2);
+        assertEquals(result.getRejectedRows(), 2);
+        assertEquals(result.getRejected().get(0).getLine(), 3);
+        assertEquals(result.getRejected().get(1).getLine(), 4);
+        assertEquals(memberRepository.findMemberByUsername("importI").getAge(), 20);
+    }
+
+    @Test
+    public void 건너뛴_줄이_너무_많으면_중단한다() throws Exception {
+        //given max-rejected-rows(1000) 보다 많은 잘못된 줄
+        StringBuilder csv = new StringBuilder();
+        for (int i = 0; i < 1001; i++) {
+            csv.append("importBad").append(i).append(",abc,\n");
+        }
+
+        //when then
+        ImportRejectedException e = assertThrows(ImportRejectedException.class, () -> memberImportService.importMembers(
+                new ByteArrayInputStream(csv.toString().getBytes(StandardCharsets.UTF_8)), ImportFormat.CSV));
+        assertEquals(e.getResult().getRejectedRows(), 1001);
+        assertEquals(e.getResult().getRejected().size(), 100);
+    }
+}
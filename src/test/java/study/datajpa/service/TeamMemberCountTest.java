@@ -0,0 +1,180 @@
+package study.datajpa.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.dto.TeamSummaryDto;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.TeamRepository;
+
+import javax.persistence.EntityManager;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@Transactional
+class TeamMemberCountTest {
+
+    @Autowired TeamRepository teamRepository;
+    @Autowired MemberRepository memberRepository;
+    @Autowired MemberImportService memberImportService;
+    @Autowired TeamMemberCountReconciler teamMemberCountReconciler;
+    @Autowired EntityManager em;
+    @Autowired PlatformTransactionManager transactionManager;
+
+    @Test
+    public void 팀변경() throws Exception {
+        //given
+        Team teamA = teamRepository.save(new Team("countTeamA"));
+        Team teamB = teamRepository.save(new Team("countTeamB"));
+        Member member = memberRepository.save(new Member("member1", 10, teamA));
+        memberRepository.save(new Member("member2", 10, teamA));
+
+        //when
+        member.changeTeam(teamB);
+        em.flush();
+        em.clear();
+
+        //then
+        assertEquals(memberCount("countTeamA"), 1);
+        assertEquals(memberCount("countTeamB"), 1);
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED) // 두 트랜잭션을 동시에 커밋한다
+    public void 같은팀에_동시에_들어와도_충돌하지_않는다() throws Exception {
+        //given
+        Team team = teamRepository.save(new Team("countTeamHot"));
+        Member member1 = memberRepository.save(new Member("hot1", 10));
+        Member member2 = memberRepository.save(new Member("hot2", 10));
+
+        //when 두 트랜잭션이 같은 버전의 팀을 읽은 뒤에 커밋한다
+        CountDownLatch loaded = new CountDownLatch(2);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> first = executor.submit(() -> joinTeam(member1.getId(), team.getId(), loaded));
+            Future<?> second = executor.submit(() -> joinTeam(member2.getId(), team.getId(), loaded));
+            first.get(10, TimeUnit.SECONDS);
+            second.get(10, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdown();
+        }
+
+        //then
+        assertEquals(memberCount("countTeamHot"), 2);
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED) // 두 트랜잭션을 따로 커밋한다
+    public void 대량등록중에_팀이름을_바꿔도_충돌하지_않는다() throws Exception {
+        //given
+        Team saved = teamRepository.save(new Team("countTeamRename"));
+        String csv = "username,age,teamName\nrename1,10,countTeamRename\n";
+
+        //when 팀을 읽은 트랜잭션이 커밋하기 전에 다른 스레드의 대량등록이 회원수를 올리고 커밋한다
+        new TransactionTemplate(transactionManager).execute(status -> {
+            Team team = teamRepository.findById(saved.getId()).get();
+            ExecutorService executor = Executors.newSingleThreadExecutor();
+            try {
+                executor.submit(() -> memberImportService.importMembers(
+                        new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), ImportFormat.CSV))
+                        .get(10, TimeUnit.SECONDS);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            } finally {
+                executor.shutdown();
+            }
+            team.setName("countTeamRenamed");
+            return null;
+        });
+
+        //then
+        assertEquals(memberCount("countTeamRenamed"), 1);
+    }
+
+    @Test
+    public void 회원삭제() throws Exception {
+        //given
+        Team team = teamRepository.save(new Team("countTeamC"));
+        Member member = memberRepository.save(new Member("member1", 10, team));
+        memberRepository.save(new Member("member2", 10, team));
+        em.flush();
+        em.clear();
+
+        //when
+        memberRepository.deleteById(member.getId());
+        em.flush();
+        em.clear();
+
+        //then
+        assertEquals(memberCount("countTeamC"), 1);
+    }
+
+    @Test
+    public void 대량등록() throws Exception {
+        //given
+        String csv = "username,age,teamName\nimport1,10,countTeamD\nimport2,20,countTeamD\nimport3,30,\n";
+
+        //when
+        memberImportService.importMembers(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), ImportFormat.CSV);
+
+        //then
+        assertEquals(memberCount("countTeamD"), 2);
+    }
+
+    @Test
+    public void 어긋난_회원수를_맞춘다() throws Exception {
+        //given
+        Team team = teamRepository.save(new Team("countTeamE"));
+        memberRepository.save(new Member("member1", 10, team));
+        em.flush();
+        teamRepository.increaseMemberCount(team.getId(), 5);
+        em.clear();
+
+        //when
+        int drifts = teamMemberCountReconciler.reconcile();
+        em.clear();
+
+        //then
+        assertTrue(drifts >= 1);
+        assertEquals(memberCount("countTeamE"), 1);
+        assertEquals(teamMemberCountReconciler.reconcile(), 0);
+    }
+
+    private void joinTeam(Long memberId, Long teamId, CountDownLatch loaded) {
+        new TransactionTemplate(transactionManager).execute(status -> {
+            Member member = memberRepository.findById(memberId).get();
+            Team team = teamRepository.findById(teamId).get();
+            loaded.countDown();
+            try {
+                loaded.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            member.changeTeam(team);
+            return null;
+        });
+    }
+
+    private int memberCount(String teamName) {
+        return teamRepository.findTeamSummaries().stream()
+                .filter(summary -> summary.getName().equals(teamName))
+                .findFirst()
+                .map(TeamSummaryDto::getMemberCount)
+                .get();
+    }
+}